@@ -0,0 +1,87 @@
+package com.expense.backend.config;
+
+import com.expense.backend.model.Expense;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.lang.reflect.Type;
+import java.util.Date;
+import java.util.List;
+
+// Writes expenses with one or two letter field names, epoch millisecond dates and no nulls.
+// Only used when the client asks for COMPACT_JSON, it never takes part in */* negotiation.
+public class CompactJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType("application/vnd.expense.compact+json");
+
+    public CompactJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper.copy()
+            .addMixIn(Expense.class, CompactExpense.class)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        setSupportedMediaTypes(List.of(COMPACT_JSON));
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return mediaType != null && COMPACT_JSON.isCompatibleWith(mediaType) && !mediaType.isWildcardSubtype()
+            && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    private abstract static class CompactExpense {
+        @JsonProperty("i")
+        abstract String getId();
+
+        @JsonProperty("u")
+        abstract String getUserId();
+
+        @JsonProperty("n")
+        abstract String getExpname();
+
+        @JsonProperty("p")
+        abstract String getExppurpose();
+
+        @JsonProperty("d")
+        abstract String getExpdescription();
+
+        @JsonProperty("q")
+        abstract Double getExpquantity();
+
+        @JsonProperty("pr")
+        abstract Double getExpprice();
+
+        @JsonProperty("t")
+        abstract Double getExptotalAmount();
+
+        @JsonProperty("dt")
+        abstract Date getExpexpenseDate();
+
+        @JsonProperty("c")
+        abstract Date getCreatedAt();
+
+        @JsonProperty("m")
+        abstract Date getUpdatedAt();
+
+        @JsonProperty("v")
+        abstract Long getVersion();
+    }
+}
@@ -0,0 +1,37 @@
+package com.expense.backend.config;
+
+import org.apache.catalina.connector.Connector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Second Tomcat connector for metrics and diagnostics, bound to loopback by default so scrapers
+// reach it from the host or a sidecar while the public port never serves it.
+// ManagementPortFilter keeps /internal/** on this connector and everything else off it.
+@Configuration
+public class ManagementPortConfig {
+
+    public static final String MANAGEMENT_PATH_PREFIX = "/internal/";
+
+    @Value("${expense.management.port:8081}")
+    private int managementPort;
+
+    @Value("${expense.management.address:127.0.0.1}")
+    private String managementAddress;
+
+    // A port of 0 or below turns the management surface off
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> managementConnectorCustomizer() {
+        return factory -> {
+            if (managementPort <= 0) {
+                return;
+            }
+            Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+            connector.setPort(managementPort);
+            connector.setProperty("address", managementAddress);
+            factory.addAdditionalTomcatConnectors(connector);
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.expense.backend.config;
+
+import com.expense.backend.service.MetricsService;
+import com.expense.backend.util.LatencyHistogram;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Times every command the MongoDB driver sends, whether it came from a repository, MongoTemplate,
+// a bulk write or a getMore on an open cursor. The driver measures from send to reply.
+@Component
+public class MongoCommandMetrics implements MongoClientSettingsBuilderCustomizer, CommandListener {
+
+    private static final String METRIC = "mongodb_command_seconds";
+    private static final String HELP = "MongoDB command time per command and collection";
+
+    @Autowired
+    private MetricsService metricsService;
+
+    // Collection of each command in flight, the completion events do not carry the command
+    private final Map<Integer, String> collections = new ConcurrentHashMap<>();
+
+    // One histogram per command, collection and outcome, resolved on first use
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        collections.put(event.getRequestId(), collection(event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event.getRequestId(), event.getCommandName(), "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event.getRequestId(), event.getCommandName(), "failure", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(int requestId, String command, String outcome, long nanos) {
+        String collection = collections.remove(requestId);
+        String target = collection == null ? "" : collection;
+        histograms.computeIfAbsent(command + '\0' + target + '\0' + outcome,
+            key -> metricsService.histogram(METRIC, HELP, "command", command, "collection", target, "outcome", outcome))
+            .record(nanos);
+    }
+
+    // find, insert, update, delete, aggregate and findAndModify name the collection as their first value,
+    // getMore carries it in a separate field
+    private String collection(BsonDocument command) {
+        if (command.isEmpty()) {
+            return "";
+        }
+        BsonValue first = command.get(command.getFirstKey());
+        if (first.isString()) {
+            return first.asString().getValue();
+        }
+        BsonValue collection = command.get("collection");
+        return collection != null && collection.isString() ? collection.asString().getValue() : "";
+    }
+}
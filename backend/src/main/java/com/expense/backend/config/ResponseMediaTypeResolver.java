@@ -0,0 +1,83 @@
+package com.expense.backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// The media type Spring MVC would pick for a response body, known before the body is built.
+// Same steps as AbstractMessageConverterMethodProcessor: the client's acceptable types against what the
+// registered converters can write, most specific first. A controller that pins the result as its
+// Content-Type gets exactly this converter, so it can choose an ETag per representation up front.
+@Component
+public class ResponseMediaTypeResolver {
+
+    private static final List<MediaType> ALL_APPLICATION_MEDIA_TYPES = List.of(MediaType.ALL, new MediaType("application"));
+
+    @Autowired
+    @Qualifier("mvcContentNegotiationManager")
+    private ContentNegotiationManager contentNegotiationManager;
+
+    // Lazy, the adapter is built by the same MVC configuration that creates the controllers
+    @Lazy
+    @Autowired
+    private RequestMappingHandlerAdapter requestMappingHandlerAdapter;
+
+    public MediaType resolve(HttpServletRequest request, Class<?> valueClass) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> acceptableTypes = contentNegotiationManager.resolveMediaTypes(new ServletWebRequest(request));
+        List<MediaType> producibleTypes = producibleTypes(request, valueClass);
+
+        List<MediaType> compatibleTypes = new ArrayList<>();
+        for (MediaType acceptType : acceptableTypes) {
+            for (MediaType produceType : producibleTypes) {
+                if (acceptType.isCompatibleWith(produceType)) {
+                    MediaType produceTypeToUse = produceType.copyQualityValue(acceptType);
+                    compatibleTypes.add(acceptType.isLessSpecific(produceTypeToUse) ? produceTypeToUse : acceptType);
+                }
+            }
+        }
+        if (compatibleTypes.isEmpty()) {
+            throw new HttpMediaTypeNotAcceptableException(producibleTypes);
+        }
+
+        MimeTypeUtils.sortBySpecificity(compatibleTypes);
+        for (MediaType mediaType : compatibleTypes) {
+            if (mediaType.isConcrete()) {
+                return mediaType.removeQualityValue();
+            }
+            if (mediaType.isPresentIn(ALL_APPLICATION_MEDIA_TYPES)) {
+                return MediaType.APPLICATION_OCTET_STREAM;
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(producibleTypes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MediaType> producibleTypes(HttpServletRequest request, Class<?> valueClass) {
+        Set<MediaType> mapped = (Set<MediaType>) request.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE);
+        if (mapped != null && !mapped.isEmpty()) {
+            return new ArrayList<>(mapped);
+        }
+        Set<MediaType> result = new LinkedHashSet<>();
+        for (HttpMessageConverter<?> converter : requestMappingHandlerAdapter.getMessageConverters()) {
+            if (converter.canWrite(valueClass, null)) {
+                result.addAll(converter.getSupportedMediaTypes(valueClass));
+            }
+        }
+        return result.isEmpty() ? List.of(MediaType.ALL) : new ArrayList<>(result);
+    }
+}
@@ -0,0 +1,64 @@
+package com.expense.backend.config;
+
+import com.expense.backend.middleware.MetricsInterceptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MetricsInterceptor metricsInterceptor;
+
+    @Value("${expense.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${expense.compression.min-response-size:2048}")
+    private long compressionMinResponseSize;
+
+    // Ahead of the default Jackson converter, which would otherwise claim application/*+json
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new CompactJsonHttpMessageConverter(objectMapper));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(metricsInterceptor).addPathPatterns("/expense/backend/api/**");
+    }
+
+    // gzip for text responses above the threshold, small bodies are not worth the CPU.
+    // Tomcat leaves responses that already carry a Content-Encoding or a strong ETag alone.
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> compressionCustomizer() {
+        return factory -> {
+            Compression compression = new Compression();
+            compression.setEnabled(compressionEnabled);
+            compression.setMinResponseSize(DataSize.ofBytes(compressionMinResponseSize));
+            compression.setMimeTypes(new String[] {
+                "application/json",
+                CompactJsonHttpMessageConverter.COMPACT_JSON.toString(),
+                "application/x-ndjson",
+                "text/csv",
+                "text/plain",
+                "text/html"
+            });
+            factory.setCompression(compression);
+        };
+    }
+}
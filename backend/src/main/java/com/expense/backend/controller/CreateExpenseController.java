@@ -1,19 +1,25 @@
 package com.expense.backend.controller;
 
+import com.expense.backend.dto.BulkCreateExpenseResponse;
 import com.expense.backend.dto.CreateExpenseRequest;
+import com.expense.backend.dto.ExpenseItemResult;
+import com.expense.backend.middleware.AuthenticatedUser;
 import com.expense.backend.model.Expense;
-import com.expense.backend.model.User;
 import com.expense.backend.service.ExpenseService;
-import com.expense.backend.service.UserService;
-import com.expense.backend.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/expense/backend/api/v1")
@@ -23,39 +29,22 @@ public class CreateExpenseController {
     private ExpenseService expenseService;
 
     @Autowired
-    private UserService userService;
+    private Validator validator;
 
-    @Autowired
-    private JwtUtil jwtUtil;
+    @Value("${expense.bulk.max-size:10000}")
+    private int maxBulkSize;
 
     @PostMapping("/{userid}/createexpense")
     public ResponseEntity<?> createExpense(@PathVariable String userid,
                                           @Valid @RequestBody CreateExpenseRequest request,
-                                          HttpServletRequest httpRequest) {
+                                          @AuthenticationPrincipal AuthenticatedUser principal) {
         try {
-            // Get token from request
-            String token = extractToken(httpRequest);
-            if (token == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
             }
 
-            // Validate token and get user info
-            String useremail = jwtUtil.extractUsername(token);
-            String tokenUserId = jwtUtil.extractUserId(token);
-
             // Verify userid matches token userId
-            if (!userid.equals(tokenUserId)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
-            }
-
-            // Verify user exists
-            Optional<User> userOptional = userService.findById(userid);
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-            }
-
-            User user = userOptional.get();
-            if (!user.getUseremail().equals(useremail)) {
+            if (!userid.equals(principal.getUserId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
             }
 
@@ -77,11 +66,79 @@ public class CreateExpenseController {
         }
     }
 
-    private String extractToken(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+    @PostMapping("/{userid}/createexpenses")
+    public ResponseEntity<?> createExpenses(@PathVariable String userid,
+                                           @RequestBody List<CreateExpenseRequest> requests,
+                                           @AuthenticationPrincipal AuthenticatedUser principal) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
+            }
+
+            if (!userid.equals(principal.getUserId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+            }
+
+            if (requests == null || requests.isEmpty() || requests.size() > maxBulkSize) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Between 1 and " + maxBulkSize + " expenses are required");
+            }
+
+            // Validate every item, only valid ones go to the bulk insert
+            ExpenseItemResult[] results = new ExpenseItemResult[requests.size()];
+            List<Expense> expenses = new ArrayList<>(requests.size());
+            List<Integer> expenseIndexes = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                CreateExpenseRequest request = requests.get(i);
+                String error = validate(request);
+                if (error != null) {
+                    results[i] = new ExpenseItemResult(i, false, null, error);
+                    continue;
+                }
+                expenses.add(new Expense(
+                    userid,
+                    request.getExpname(),
+                    request.getExppurpose(),
+                    request.getExpdescription(),
+                    request.getExpquantity(),
+                    request.getExpprice(),
+                    request.getExpexpenseDate()
+                ));
+                expenseIndexes.add(i);
+            }
+
+            // Create expenses
+            for (ExpenseItemResult result : expenseService.createExpenses(expenses)) {
+                int index = expenseIndexes.get(result.getIndex());
+                result.setIndex(index);
+                results[index] = result;
+            }
+
+            int created = 0;
+            for (ExpenseItemResult result : results) {
+                if (result.isSuccess()) {
+                    created++;
+                }
+            }
+            BulkCreateExpenseResponse response =
+                new BulkCreateExpenseResponse(created, results.length - created, List.of(results));
+
+            return ResponseEntity.status(created == results.length ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                .body(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error creating expenses: " + e.getMessage());
+        }
+    }
+
+    private String validate(CreateExpenseRequest request) {
+        if (request == null) {
+            return "Expense is required";
+        }
+        Set<ConstraintViolation<CreateExpenseRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
         }
-        return null;
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
     }
 }
@@ -1,16 +1,18 @@
 package com.expense.backend.controller;
 
+import com.expense.backend.dto.BulkDeleteExpenseRequest;
+import com.expense.backend.middleware.AuthenticatedUser;
 import com.expense.backend.model.Expense;
-import com.expense.backend.model.User;
 import com.expense.backend.service.ExpenseService;
-import com.expense.backend.service.UserService;
-import com.expense.backend.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -20,52 +22,26 @@ public class DeleteExpenseController {
     @Autowired
     private ExpenseService expenseService;
 
-    @Autowired
-    private UserService userService;
-
-    @Autowired
-    private JwtUtil jwtUtil;
-
     @DeleteMapping("/{userid}/{expenseid}/deleteexpense")
     public ResponseEntity<?> deleteExpense(@PathVariable String userid,
                                           @PathVariable String expenseid,
-                                          HttpServletRequest request) {
+                                          @AuthenticationPrincipal AuthenticatedUser principal) {
         try {
-            // Get token from request
-            String token = extractToken(request);
-            if (token == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
             }
 
-            // Validate token and get user info
-            String useremail = jwtUtil.extractUsername(token);
-            String tokenUserId = jwtUtil.extractUserId(token);
-
             // Verify userid matches token userId
-            if (!userid.equals(tokenUserId)) {
+            if (!userid.equals(principal.getUserId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
             }
 
-            // Verify user exists
-            Optional<User> userOptional = userService.findById(userid);
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-            }
-
-            User user = userOptional.get();
-            if (!user.getUseremail().equals(useremail)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
-            }
-
-            // Verify expense exists and belongs to user
-            Optional<Expense> expenseOptional = expenseService.findByIdAndUserId(expenseid, userid);
-            if (expenseOptional.isEmpty()) {
+            // Delete expense, the query is scoped to the user so another user's expense is not found
+            Optional<Expense> deletedExpense = expenseService.deleteExpense(expenseid, userid);
+            if (deletedExpense.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Expense not found");
             }
 
-            // Delete expense
-            expenseService.deleteExpense(expenseid, userid);
-
             return ResponseEntity.ok("Expense deleted successfully");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -73,11 +49,39 @@ public class DeleteExpenseController {
         }
     }
 
-    private String extractToken(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+    @PostMapping("/{userid}/deleteexpenses")
+    public ResponseEntity<?> deleteExpenses(@PathVariable String userid,
+                                           @RequestBody BulkDeleteExpenseRequest request,
+                                           @AuthenticationPrincipal AuthenticatedUser principal) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
+            }
+
+            if (!userid.equals(principal.getUserId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+            }
+
+            // Refuse an empty filter, it would wipe every expense of the user
+            boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+            if (!hasIds && request.getFrom() == null && request.getTo() == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Expense ids or a date range is required");
+            }
+
+            try {
+                ZoneId.of(request.getTimezone());
+            } catch (DateTimeException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            }
+
+            // Delete expenses
+            long deleted = expenseService.deleteExpenses(userid, request.getIds(), request.getFrom(), request.getTo(),
+                request.getTimezone());
+
+            return ResponseEntity.ok(Map.of("deleted", deleted));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error deleting expenses: " + e.getMessage());
         }
-        return null;
     }
 }
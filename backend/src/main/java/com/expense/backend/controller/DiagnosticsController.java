@@ -0,0 +1,103 @@
+package com.expense.backend.controller;
+
+import com.expense.backend.service.ExpenseRollupService;
+import com.expense.backend.service.MongoIndexService;
+import com.expense.backend.service.PasswordHashingService;
+import com.expense.backend.service.TokenBlacklistService;
+import com.expense.backend.service.VirtualThreadPinningMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Global stats for operators, served on the loopback management port only (see ManagementPortFilter)
+@RestController
+@RequestMapping("/internal/diagnostics")
+public class DiagnosticsController {
+
+    @Autowired
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Autowired
+    private MongoIndexService mongoIndexService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    // Only present when spring.threads.virtual.enabled is set on Java 21+
+    @Autowired(required = false)
+    private VirtualThreadPinningMonitor virtualThreadPinningMonitor;
+
+    @GetMapping("/blacklist")
+    public ResponseEntity<?> blacklistStats() {
+        try {
+            return ResponseEntity.ok(tokenBlacklistService.getStats());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error reading blacklist stats: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/indexes")
+    public ResponseEntity<?> indexReport() {
+        try {
+            return ResponseEntity.ok(mongoIndexService.getIndexReport());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error reading indexes: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/rollups")
+    public ResponseEntity<?> rollupReconcileReport() {
+        try {
+            return ResponseEntity.ok(expenseRollupService.getLastReconcileReport());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error reading rollup report: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/passwordhashing")
+    public ResponseEntity<?> passwordHashingStats() {
+        try {
+            return ResponseEntity.ok(passwordHashingService.getStats());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error reading password hashing stats: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/threads")
+    public ResponseEntity<?> threadStats() {
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("virtualThreads", virtualThreadPinningMonitor != null);
+            stats.put("currentThread", Thread.currentThread().toString());
+            if (virtualThreadPinningMonitor != null) {
+                stats.put("pinning", virtualThreadPinningMonitor.getStats());
+            }
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error reading thread stats: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{userid}/explain")
+    public ResponseEntity<?> explainExpenseQuery(@PathVariable String userid,
+                                                 @RequestParam(required = false) String exppurpose) {
+        try {
+            return ResponseEntity.ok(mongoIndexService.explainExpenseQuery(userid, exppurpose));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error explaining query: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.expense.backend.controller;
+
+import com.expense.backend.middleware.AuthenticatedUser;
+import com.expense.backend.service.ExpenseExportService;
+import com.expense.backend.util.AcceptEncoding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/expense/backend/api/v1")
+public class ExpenseExportController {
+
+    @Autowired
+    private ExpenseExportService expenseExportService;
+
+    @GetMapping("/{userid}/exportexpenses")
+    public ResponseEntity<?> exportExpenses(@PathVariable String userid,
+                                            @RequestParam(defaultValue = ExpenseExportService.FORMAT_CSV) String format,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(required = false) String exppurpose,
+                                            @RequestParam(defaultValue = "UTC") String timezone,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                            @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
+        }
+
+        if (!userid.equals(principal.getUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+        }
+
+        try {
+            ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+
+        boolean xlsx = ExpenseExportService.FORMAT_XLSX.equals(format);
+        if (!xlsx && !ExpenseExportService.FORMAT_CSV.equals(format)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unsupported export format: " + format);
+        }
+
+        // XLSX is already a zip archive, only CSV is worth compressing
+        boolean gzip = !xlsx && AcceptEncoding.allowsGzip(acceptEncoding);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = gzip
+                ? new GZIPOutputStream(outputStream, 65536)
+                : new BufferedOutputStream(outputStream, 65536);
+            if (xlsx) {
+                expenseExportService.writeXlsx(userid, from, to, timezone, exppurpose, out);
+            } else {
+                expenseExportService.writeCsv(userid, from, to, timezone, exppurpose, out);
+            }
+            if (gzip) {
+                ((GZIPOutputStream) out).finish();
+            }
+            out.flush();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"expenses." + format + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response
+            .contentType(xlsx
+                ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                : MediaType.parseMediaType("text/csv;charset=UTF-8"))
+            .body(body);
+    }
+}
@@ -0,0 +1,56 @@
+package com.expense.backend.controller;
+
+import com.expense.backend.middleware.AuthenticatedUser;
+import com.expense.backend.service.ExpenseImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/expense/backend/api/v1")
+public class ExpenseImportController {
+
+    @Autowired
+    private ExpenseImportService expenseImportService;
+
+    @PostMapping("/{userid}/importexpenses")
+    public ResponseEntity<?> importExpenses(@PathVariable String userid,
+                                            @RequestParam(required = false) String format,
+                                            HttpServletRequest request,
+                                            @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
+        }
+
+        if (!userid.equals(principal.getUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+        }
+
+        // Format comes from the query string, otherwise from the Content-Type
+        String importFormat = format;
+        if (importFormat == null) {
+            String contentType = request.getContentType();
+            importFormat = contentType != null && contentType.startsWith("text/csv")
+                ? ExpenseImportService.FORMAT_CSV
+                : ExpenseImportService.FORMAT_NDJSON;
+        }
+        if (!ExpenseImportService.FORMAT_CSV.equals(importFormat)
+                && !ExpenseImportService.FORMAT_NDJSON.equals(importFormat)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unsupported import format: " + importFormat);
+        }
+
+        // The upload is read while progress lines are written back
+        String resolvedFormat = importFormat;
+        StreamingResponseBody body = outputStream ->
+            expenseImportService.importExpenses(userid, resolvedFormat, request.getInputStream(), outputStream);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+}
@@ -0,0 +1,60 @@
+package com.expense.backend.controller;
+
+import com.expense.backend.middleware.AuthenticatedUser;
+import com.expense.backend.service.ExpenseReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+@RestController
+@RequestMapping("/expense/backend/api/v1")
+public class ExpenseReportController {
+
+    @Autowired
+    private ExpenseReportService expenseReportService;
+
+    @GetMapping("/{userid}/expensereport")
+    public ResponseEntity<?> expenseReport(@PathVariable String userid,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                           @RequestParam(defaultValue = "UTC") String timezone,
+                                           @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
+        }
+
+        if (!userid.equals(principal.getUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+        }
+
+        try {
+            ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+
+        // Build the PDF while it is being sent
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, 65536);
+            expenseReportService.writePdfReport(userid, from, to, timezone, out);
+            out.flush();
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_PDF)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"expense-report.pdf\"")
+            .body(body);
+    }
+}
@@ -0,0 +1,51 @@
+package com.expense.backend.controller;
+
+import com.expense.backend.dto.ExpenseSummaryBucket;
+import com.expense.backend.middleware.AuthenticatedUser;
+import com.expense.backend.service.ExpenseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/expense/backend/api/v1")
+public class ExpenseSummaryController {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @GetMapping("/{userid}/expensesummary")
+    public ResponseEntity<?> expenseSummary(@PathVariable String userid,
+                                            @RequestParam(defaultValue = "month") String groupBy,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(defaultValue = "UTC") String timezone,
+                                            @AuthenticationPrincipal AuthenticatedUser principal) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
+            }
+
+            if (!userid.equals(principal.getUserId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+            }
+
+            // Get pre-grouped totals, one entry per bucket
+            List<ExpenseSummaryBucket> buckets = expenseService.getExpenseSummary(userid, groupBy, from, to, timezone);
+
+            return ResponseEntity.ok(buckets);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error reading expense summary: " + e.getMessage());
+        }
+    }
+}
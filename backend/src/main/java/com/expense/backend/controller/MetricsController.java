@@ -0,0 +1,23 @@
+package com.expense.backend.controller;
+
+import com.expense.backend.service.MetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class MetricsController {
+
+    @Autowired
+    private MetricsService metricsService;
+
+    // Prometheus text format, served on the management port only (see ManagementPortFilter)
+    @GetMapping("/internal/metrics")
+    public ResponseEntity<?> metrics() {
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("text/plain;version=0.0.4;charset=utf-8"))
+            .body(metricsService.scrape());
+    }
+}
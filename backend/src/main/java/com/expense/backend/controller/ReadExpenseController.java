@@ -1,18 +1,28 @@
 package com.expense.backend.controller;
 
+import com.expense.backend.dto.ExpensePageResponse;
+import com.expense.backend.config.CompactJsonHttpMessageConverter;
+import com.expense.backend.config.ResponseMediaTypeResolver;
+import com.expense.backend.middleware.AuthenticatedUser;
 import com.expense.backend.model.Expense;
-import com.expense.backend.model.User;
+import com.expense.backend.service.DataVersionService;
 import com.expense.backend.service.ExpenseService;
-import com.expense.backend.service.UserService;
-import com.expense.backend.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/expense/backend/api/v1")
@@ -22,55 +32,102 @@ public class ReadExpenseController {
     private ExpenseService expenseService;
 
     @Autowired
-    private UserService userService;
+    private DataVersionService dataVersionService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResponseMediaTypeResolver responseMediaTypeResolver;
 
     @GetMapping("/{userid}/readexpense")
-    public ResponseEntity<?> readExpense(@PathVariable String userid, HttpServletRequest request) {
+    public ResponseEntity<?> readExpense(@PathVariable String userid,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                         @AuthenticationPrincipal AuthenticatedUser principal,
+                                         HttpServletRequest request) {
         try {
-            // Get token from request
-            String token = extractToken(request);
-            if (token == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
             }
 
-            // Validate token and get user info
-            String useremail = jwtUtil.extractUsername(token);
-            String tokenUserId = jwtUtil.extractUserId(token);
-
-            // Verify userid matches token userId
-            if (!userid.equals(tokenUserId)) {
+            if (!userid.equals(principal.getUserId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
             }
 
-            // Verify user exists
-            Optional<User> userOptional = userService.findById(userid);
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-            }
+            // The converter's choice decides the representation, so each one gets its own ETag
+            MediaType mediaType = responseMediaTypeResolver.resolve(request, List.class);
+            String variant = CompactJsonHttpMessageConverter.COMPACT_JSON.equals(mediaType) ? "compact" : null;
 
-            User user = userOptional.get();
-            if (!user.getUseremail().equals(useremail)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+            // Unchanged since the client's copy, skip the expense query entirely
+            String etag = dataVersionService.getETag(userid, DataVersionService.EXPENSES, variant);
+            if (dataVersionService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT).build();
             }
 
             // Get expenses
             List<Expense> expenses = expenseService.getExpensesByUserId(userid);
 
-            return ResponseEntity.ok(expenses);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(mediaType).body(expenses);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error reading expenses: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{userid}/readexpense/page")
+    public ResponseEntity<?> readExpensePage(@PathVariable String userid,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             @AuthenticationPrincipal AuthenticatedUser principal) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
+            }
+
+            if (!userid.equals(principal.getUserId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+            }
+
+            // Get one page of expenses after the cursor
+            ExpensePageResponse page = expenseService.getExpensePage(userid, cursor, limit);
+
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error reading expenses: " + e.getMessage());
         }
     }
 
-    private String extractToken(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+    @GetMapping("/{userid}/readexpense/stream")
+    public ResponseEntity<?> readExpenseStream(@PathVariable String userid,
+                                               @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
+        }
+
+        if (!userid.equals(principal.getUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
         }
-        return null;
+
+        // Write one JSON document per line straight from the MongoDB cursor
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Expense> expenses = expenseService.streamExpensesByUserId(userid)) {
+                Iterator<Expense> iterator = expenses.iterator();
+                while (iterator.hasNext()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                }
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
     }
 }
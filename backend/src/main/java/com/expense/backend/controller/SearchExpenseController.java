@@ -0,0 +1,46 @@
+package com.expense.backend.controller;
+
+import com.expense.backend.dto.ExpenseSearchResponse;
+import com.expense.backend.middleware.AuthenticatedUser;
+import com.expense.backend.service.ExpenseSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/expense/backend/api/v1")
+public class SearchExpenseController {
+
+    @Autowired
+    private ExpenseSearchService expenseSearchService;
+
+    @GetMapping("/{userid}/searchexpenses")
+    public ResponseEntity<?> searchExpenses(@PathVariable String userid,
+                                            @RequestParam(required = false) String q,
+                                            @RequestParam(required = false) String mode,
+                                            @RequestParam(required = false) Integer page,
+                                            @RequestParam(required = false) Integer size,
+                                            @AuthenticationPrincipal AuthenticatedUser principal) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
+            }
+
+            if (!userid.equals(principal.getUserId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+            }
+
+            // Search only this user's expenses
+            ExpenseSearchResponse response = expenseSearchService.search(userid, q, mode, page, size);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error searching expenses: " + e.getMessage());
+        }
+    }
+}
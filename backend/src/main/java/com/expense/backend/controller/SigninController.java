@@ -9,10 +9,10 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/expense/backend/api/v1")
@@ -24,9 +24,6 @@ public class SigninController {
     @Autowired
     private JwtUtil jwtUtil;
 
-    @Autowired
-    private PasswordEncoder passwordEncoder;
-
     @PostMapping("/signin")
     public ResponseEntity<?> signin(@Valid @RequestBody SigninRequest request) {
         try {
@@ -41,11 +38,14 @@ public class SigninController {
             User user = userOptional.get();
 
             // Verify password
-            if (!passwordEncoder.matches(request.getUserpassword(), user.getUserpassword())) {
+            if (!userService.passwordMatches(user, request.getUserpassword())) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body("Invalid email or password");
             }
 
+            // Bring older hashes up to the configured BCrypt cost
+            userService.rehashPasswordIfNeeded(user, request.getUserpassword());
+
             // Generate JWT token
             String token = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getUseremail());
 
@@ -59,6 +59,9 @@ public class SigninController {
             );
 
             return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("Server is busy, try again later");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error during signin: " + e.getMessage());
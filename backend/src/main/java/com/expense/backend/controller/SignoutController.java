@@ -1,17 +1,14 @@
 package com.expense.backend.controller;
 
-import com.expense.backend.model.User;
+import com.expense.backend.middleware.AuthenticatedUser;
 import com.expense.backend.service.TokenBlacklistService;
-import com.expense.backend.service.UserService;
-import com.expense.backend.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Date;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/expense/backend/api/v1")
@@ -20,46 +17,24 @@ public class SignoutController {
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
 
-    @Autowired
-    private UserService userService;
-
-    @Autowired
-    private JwtUtil jwtUtil;
-
     @PostMapping("/{userid}/signout")
-    public ResponseEntity<?> signout(@PathVariable String userid, HttpServletRequest request) {
+    public ResponseEntity<?> signout(@PathVariable String userid,
+                                     @AuthenticationPrincipal AuthenticatedUser principal) {
         try {
-            // Get token from request
-            String token = extractToken(request);
-            if (token == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
             }
 
-            // Validate token and get user info
-            String useremail = jwtUtil.extractUsername(token);
-            String tokenUserId = jwtUtil.extractUserId(token);
-
             // Verify userid matches token userId
-            if (!userid.equals(tokenUserId)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
-            }
-
-            // Verify user exists
-            Optional<User> userOptional = userService.findById(userid);
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-            }
-
-            User user = userOptional.get();
-            if (!user.getUseremail().equals(useremail)) {
+            if (!userid.equals(principal.getUserId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
             }
 
             // Get token expiration date
-            Date expirationDate = jwtUtil.extractExpiration(token);
+            Date expirationDate = principal.getTokenExpiration();
 
             // Blacklist the token
-            tokenBlacklistService.blacklistToken(token, userid, expirationDate);
+            tokenBlacklistService.blacklistToken(principal.getToken(), userid, expirationDate);
 
             return ResponseEntity.ok("User signed out successfully");
         } catch (Exception e) {
@@ -67,12 +42,4 @@ public class SignoutController {
                 .body("Error during signout: " + e.getMessage());
         }
     }
-
-    private String extractToken(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
-        }
-        return null;
-    }
 }
@@ -2,17 +2,20 @@ package com.expense.backend.controller;
 
 import com.expense.backend.dto.ProfileResponse;
 import com.expense.backend.dto.UpdateProfileRequest;
+import com.expense.backend.middleware.AuthenticatedUser;
 import com.expense.backend.model.User;
+import com.expense.backend.service.DataVersionService;
 import com.expense.backend.service.UserService;
-import com.expense.backend.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/expense/backend/api/v1")
@@ -22,26 +25,28 @@ public class UpdateProfileController {
     private UserService userService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private DataVersionService dataVersionService;
 
     @GetMapping("/{userid}/getprofile")
-    public ResponseEntity<?> getProfile(@PathVariable String userid, HttpServletRequest request) {
+    public ResponseEntity<?> getProfile(@PathVariable String userid,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                        @AuthenticationPrincipal AuthenticatedUser principal) {
         try {
-            // Get token from request
-            String token = extractToken(request);
-            if (token == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
             }
 
-            // Validate token and get user email
-            String useremail = jwtUtil.extractUsername(token);
-            String tokenUserId = jwtUtil.extractUserId(token);
-
             // Verify userid matches token userId
-            if (!userid.equals(tokenUserId)) {
+            if (!userid.equals(principal.getUserId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
             }
 
+            // The filter already matched the token against the user's current email
+            String etag = dataVersionService.getETag(userid, DataVersionService.PROFILE);
+            if (dataVersionService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).build();
+            }
+
             // Find user
             Optional<User> userOptional = userService.findById(userid);
             if (userOptional.isEmpty()) {
@@ -51,7 +56,7 @@ public class UpdateProfileController {
             User user = userOptional.get();
 
             // Verify useremail matches
-            if (!user.getUseremail().equals(useremail)) {
+            if (!user.getUseremail().equals(principal.getUseremail())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
             }
 
@@ -63,7 +68,7 @@ public class UpdateProfileController {
                 user.getUserprofileImage()
             );
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).body(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error getting profile: " + e.getMessage());
@@ -73,20 +78,14 @@ public class UpdateProfileController {
     @PatchMapping("/{userid}/updateprofile")
     public ResponseEntity<?> updateProfile(@PathVariable String userid,
                                           @RequestBody UpdateProfileRequest request,
-                                          HttpServletRequest httpRequest) {
+                                          @AuthenticationPrincipal AuthenticatedUser principal) {
         try {
-            // Get token from request
-            String token = extractToken(httpRequest);
-            if (token == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization token is required");
             }
 
-            // Validate token and get user email
-            String useremail = jwtUtil.extractUsername(token);
-            String tokenUserId = jwtUtil.extractUserId(token);
-
             // Verify userid matches token userId
-            if (!userid.equals(tokenUserId)) {
+            if (!userid.equals(principal.getUserId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
             }
 
@@ -99,7 +98,7 @@ public class UpdateProfileController {
             User user = userOptional.get();
 
             // Verify useremail matches
-            if (!user.getUseremail().equals(useremail)) {
+            if (!user.getUseremail().equals(principal.getUseremail())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
             }
 
@@ -121,17 +120,12 @@ public class UpdateProfileController {
             );
 
             return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("Server is busy, try again later");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error updating profile: " + e.getMessage());
         }
     }
-
-    private String extractToken(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
-        }
-        return null;
-    }
 }
@@ -0,0 +1,44 @@
+package com.expense.backend.dto;
+
+import java.util.List;
+
+public class BulkCreateExpenseResponse {
+    private int created;
+    private int failed;
+    private List<ExpenseItemResult> results;
+
+    // Constructors
+    public BulkCreateExpenseResponse() {
+    }
+
+    public BulkCreateExpenseResponse(int created, int failed, List<ExpenseItemResult> results) {
+        this.created = created;
+        this.failed = failed;
+        this.results = results;
+    }
+
+    // Getters and Setters
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<ExpenseItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ExpenseItemResult> results) {
+        this.results = results;
+    }
+}
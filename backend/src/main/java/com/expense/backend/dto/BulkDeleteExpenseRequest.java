@@ -0,0 +1,48 @@
+package com.expense.backend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class BulkDeleteExpenseRequest {
+    private List<String> ids;
+    private LocalDate from;
+    private LocalDate to;
+    private String timezone = "UTC";
+
+    // Constructors
+    public BulkDeleteExpenseRequest() {
+    }
+
+    // Getters and Setters
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public String getTimezone() {
+        return timezone;
+    }
+
+    public void setTimezone(String timezone) {
+        this.timezone = timezone;
+    }
+}
@@ -0,0 +1,52 @@
+package com.expense.backend.dto;
+
+public class ExpenseItemResult {
+    private int index;
+    private boolean success;
+    private String id;
+    private String error;
+
+    // Constructors
+    public ExpenseItemResult() {
+    }
+
+    public ExpenseItemResult(int index, boolean success, String id, String error) {
+        this.index = index;
+        this.success = success;
+        this.id = id;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
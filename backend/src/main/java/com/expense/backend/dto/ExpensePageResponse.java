@@ -0,0 +1,36 @@
+package com.expense.backend.dto;
+
+import com.expense.backend.model.Expense;
+
+import java.util.List;
+
+public class ExpensePageResponse {
+    private List<Expense> expenses;
+    private String nextCursor;
+
+    // Constructors
+    public ExpensePageResponse() {
+    }
+
+    public ExpensePageResponse(List<Expense> expenses, String nextCursor) {
+        this.expenses = expenses;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<Expense> getExpenses() {
+        return expenses;
+    }
+
+    public void setExpenses(List<Expense> expenses) {
+        this.expenses = expenses;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,66 @@
+package com.expense.backend.dto;
+
+import com.expense.backend.model.Expense;
+
+import java.util.List;
+
+public class ExpenseSearchResponse {
+    private List<Expense> expenses;
+    private String mode;
+    private int page;
+    private int size;
+    private boolean hasMore;
+
+    // Constructors
+    public ExpenseSearchResponse() {
+    }
+
+    public ExpenseSearchResponse(List<Expense> expenses, String mode, int page, int size, boolean hasMore) {
+        this.expenses = expenses;
+        this.mode = mode;
+        this.page = page;
+        this.size = size;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<Expense> getExpenses() {
+        return expenses;
+    }
+
+    public void setExpenses(List<Expense> expenses) {
+        this.expenses = expenses;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,42 @@
+package com.expense.backend.dto;
+
+public class ExpenseSummaryBucket {
+    private String key;
+    private Double totalAmount;
+    private Long count;
+
+    // Constructors
+    public ExpenseSummaryBucket() {
+    }
+
+    public ExpenseSummaryBucket(String key, Double totalAmount, Long count) {
+        this.key = key;
+        this.totalAmount = totalAmount;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Double getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(Double totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
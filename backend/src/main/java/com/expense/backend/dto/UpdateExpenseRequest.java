@@ -9,6 +9,7 @@ public class UpdateExpenseRequest {
     private Double expquantity;
     private Double expprice;
     private Date expexpenseDate;
+    private Long version;
 
     // Constructors
     public UpdateExpenseRequest() {
@@ -62,4 +63,12 @@ public class UpdateExpenseRequest {
     public void setExpexpenseDate(Date expexpenseDate) {
         this.expexpenseDate = expexpenseDate;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,39 @@
+package com.expense.backend.middleware;
+
+import java.util.Date;
+
+// Principal resolved once per request by JwtAuthenticationFilter
+public class AuthenticatedUser {
+    private final String userId;
+    private final String useremail;
+    private final Date tokenExpiration;
+    private final String token;
+
+    public AuthenticatedUser(String userId, String useremail, Date tokenExpiration, String token) {
+        this.userId = userId;
+        this.useremail = useremail;
+        this.tokenExpiration = tokenExpiration;
+        this.token = token;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getUseremail() {
+        return useremail;
+    }
+
+    public Date getTokenExpiration() {
+        return tokenExpiration;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    @Override
+    public String toString() {
+        return useremail;
+    }
+}
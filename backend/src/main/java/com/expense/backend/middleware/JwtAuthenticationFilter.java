@@ -1,12 +1,14 @@
 package com.expense.backend.middleware;
 
 import com.expense.backend.service.TokenBlacklistService;
+import com.expense.backend.service.UserService;
 import com.expense.backend.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -26,6 +28,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
 
+    // Lazy to avoid a cycle through SecurityConfig's PasswordEncoder bean
+    @Lazy
+    @Autowired
+    private UserService userService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -53,11 +60,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (useremail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             if (jwtUtil.validateToken(token, useremail)) {
-                UsernamePasswordAuthenticationToken authenticationToken = 
-                    new UsernamePasswordAuthenticationToken(useremail, null, 
-                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                String userId = jwtUtil.extractUserId(token);
+
+                // Token must still belong to an existing user with the same email
+                if (useremail.equals(userService.findCachedUseremailById(userId))) {
+                    AuthenticatedUser principal =
+                        new AuthenticatedUser(userId, useremail, jwtUtil.extractExpiration(token), token);
+                    UsernamePasswordAuthenticationToken authenticationToken = 
+                        new UsernamePasswordAuthenticationToken(principal, null, 
+                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+                    authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                }
             }
         }
 
@@ -0,0 +1,38 @@
+package com.expense.backend.middleware;
+
+import com.expense.backend.config.ManagementPortConfig;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Runs ahead of Spring Security. Management paths only answer on the management connector,
+// which is why SecurityConfig can permit them without a token, and the API does not answer there.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ManagementPortFilter extends OncePerRequestFilter {
+
+    @Value("${expense.management.port:8081}")
+    private int managementPort;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean managementPath = request.getRequestURI().startsWith(ManagementPortConfig.MANAGEMENT_PATH_PREFIX);
+        boolean managementConnector = managementPort > 0 && request.getLocalPort() == managementPort;
+
+        if (managementPath != managementConnector) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
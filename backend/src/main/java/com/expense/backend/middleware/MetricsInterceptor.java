@@ -0,0 +1,43 @@
+package com.expense.backend.middleware;
+
+import com.expense.backend.service.MetricsService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Per-endpoint latency and status, keyed by the mapped URI pattern so path variables do not explode the series
+@Component
+public class MetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = MetricsInterceptor.class.getName() + ".start";
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async dispatches of streaming responses come through again, keep the original start
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNMAPPED";
+        String status = Integer.toString(response.getStatus());
+        metricsService.recordNanos("http_server_requests_seconds", "Request handling time per endpoint",
+            System.nanoTime() - (Long) start, "method", request.getMethod(), "uri", uri, "status", status);
+        metricsService.increment("http_server_requests_total", "Requests per endpoint and status",
+            "method", request.getMethod(), "uri", uri, "status", status);
+    }
+}
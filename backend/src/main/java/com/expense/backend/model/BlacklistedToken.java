@@ -17,8 +17,11 @@ public class BlacklistedToken {
     
     private String userId;
     
+    // TTL index, MongoDB removes the document once expirationDate has passed
+    @Indexed(name = "expirationDate_ttl", expireAfterSeconds = 0)
     private Date expirationDate;
     
+    @Indexed
     private Date blacklistedAt;
 
     // Constructors
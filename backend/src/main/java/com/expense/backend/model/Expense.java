@@ -1,12 +1,24 @@
 package com.expense.backend.model;
 
+import com.expense.backend.util.SearchTerms;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 
 import java.util.Date;
+import java.util.List;
 
 @Document(collection = "expense")
+@CompoundIndexes({
+    @CompoundIndex(name = "userId_expexpenseDate", def = "{ 'userId': 1, 'expexpenseDate': -1, '_id': -1 }"),
+    @CompoundIndex(name = "userId_exppurpose", def = "{ 'userId': 1, 'exppurpose': 1 }"),
+    @CompoundIndex(name = "userId_text", def = "{ 'userId': 1, 'expname': 'text', 'exppurpose': 'text', 'expdescription': 'text' }"),
+    @CompoundIndex(name = "userId_searchPrefixes_expexpenseDate",
+        def = "{ 'userId': 1, 'searchPrefixes': 1, 'expexpenseDate': -1, '_id': -1 }")
+})
 public class Expense {
     
     @Id
@@ -32,6 +44,13 @@ public class Expense {
     
     private Date updatedAt;
 
+    // Bumped by every update, clients send it back to detect concurrent edits
+    private Long version;
+
+    // Word prefixes of expname, exppurpose and expdescription for prefix search, never sent to clients
+    @JsonIgnore
+    private List<String> searchPrefixes;
+
     // Constructors
     public Expense() {
     }
@@ -48,6 +67,8 @@ public class Expense {
         this.expexpenseDate = expexpenseDate;
         this.createdAt = new Date();
         this.updatedAt = new Date();
+        this.version = 0L;
+        this.searchPrefixes = SearchTerms.prefixes(expname, exppurpose, expdescription);
     }
 
     // Getters and Setters
@@ -138,4 +159,20 @@ public class Expense {
     public void setUpdatedAt(Date updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public List<String> getSearchPrefixes() {
+        return searchPrefixes;
+    }
+
+    public void setSearchPrefixes(List<String> searchPrefixes) {
+        this.searchPrefixes = searchPrefixes;
+    }
 }
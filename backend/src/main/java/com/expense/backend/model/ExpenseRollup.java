@@ -0,0 +1,101 @@
+package com.expense.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Document(collection = "expense_rollup")
+@CompoundIndex(name = "userId_granularity_key", def = "{ 'userId': 1, 'granularity': 1, 'key': 1 }")
+public class ExpenseRollup {
+
+    // userId:granularity:key
+    @Id
+    private String id;
+
+    private String userId;
+
+    // day, month or purpose
+    private String granularity;
+
+    private String key;
+
+    private Double totalAmount;
+
+    private Long count;
+
+    private Date reconciledAt;
+
+    // Server time of the last incremental write, reconcile leaves recently written buckets alone
+    private Date updatedAt;
+
+    // Constructors
+    public ExpenseRollup() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Double getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(Double totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public Date getReconciledAt() {
+        return reconciledAt;
+    }
+
+    public void setReconciledAt(Date reconciledAt) {
+        this.reconciledAt = reconciledAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,57 @@
+package com.expense.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Per-user change counters, bumped on every write and used as ETags
+@Document(collection = "user_data_version")
+public class UserDataVersion {
+
+    // userId
+    @Id
+    private String id;
+
+    // Random per document so a recreated counter never repeats an old ETag
+    private String epoch;
+
+    private Long expenses;
+
+    private Long profile;
+
+    // Constructors
+    public UserDataVersion() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+
+    public Long getExpenses() {
+        return expenses;
+    }
+
+    public void setExpenses(Long expenses) {
+        this.expenses = expenses;
+    }
+
+    public Long getProfile() {
+        return profile;
+    }
+
+    public void setProfile(Long profile) {
+        this.profile = profile;
+    }
+}
@@ -4,10 +4,16 @@ import com.expense.backend.model.BlacklistedToken;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BlacklistedTokenRepository extends MongoRepository<BlacklistedToken, String> {
     Optional<BlacklistedToken> findByToken(String token);
     boolean existsByToken(String token);
+    Stream<BlacklistedToken> findByExpirationDateAfter(Date date);
+    Stream<BlacklistedToken> findByBlacklistedAtAfter(Date date);
+    long countByExpirationDateAfter(Date date);
+    long deleteByExpirationDateBefore(Date date);
 }
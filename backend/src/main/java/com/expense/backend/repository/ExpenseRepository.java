@@ -1,14 +1,40 @@
 package com.expense.backend.repository;
 
 import com.expense.backend.model.Expense;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
+// searchPrefixes is only ever matched on, every read leaves it out
 @Repository
 public interface ExpenseRepository extends MongoRepository<Expense, String> {
+    @Query(fields = "{ 'searchPrefixes': 0 }")
     List<Expense> findByUserId(String userId);
+
+    @Query(fields = "{ 'searchPrefixes': 0 }")
     Expense findByIdAndUserId(String id, String userId);
+
     void deleteByIdAndUserId(String id, String userId);
+
+    // Keyset pagination on (expexpenseDate, _id), newest first. Expenses without a date sort after all dated ones.
+    @Query(fields = "{ 'searchPrefixes': 0 }")
+    List<Expense> findByUserId(String userId, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, '$or': [ { 'expexpenseDate': { '$lt': ?1 } }, { 'expexpenseDate': ?1, '_id': { '$lt': ?2 } }, { 'expexpenseDate': null } ] }",
+        fields = "{ 'searchPrefixes': 0 }")
+    List<Expense> findByUserIdAfterCursor(String userId, Date expexpenseDate, ObjectId id, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'expexpenseDate': null, '_id': { '$lt': ?1 } }", fields = "{ 'searchPrefixes': 0 }")
+    List<Expense> findByUserIdAfterUndatedCursor(String userId, ObjectId id, Pageable pageable);
+
+    // Backed by a MongoDB cursor, callers must close the stream
+    @Query(fields = "{ 'searchPrefixes': 0 }")
+    Stream<Expense> streamByUserId(String userId, Sort sort);
 }
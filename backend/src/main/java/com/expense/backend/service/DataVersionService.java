@@ -0,0 +1,87 @@
+package com.expense.backend.service;
+
+import com.expense.backend.model.UserDataVersion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+// Per-user version counters so unchanged reads can be answered with 304 from one small lookup
+@Service
+public class DataVersionService {
+
+    public static final String EXPENSES = "expenses";
+    public static final String PROFILE = "profile";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public void bumpExpenses(String userId) {
+        bump(userId, EXPENSES);
+    }
+
+    public void bumpProfile(String userId) {
+        bump(userId, PROFILE);
+    }
+
+    // Weak ETag for one user's data set, read it before the data so a concurrent write is never hidden.
+    // Weak because Tomcat will not gzip a response that carries a strong ETag.
+    public String getETag(String userId, String dataSet) {
+        return getETag(userId, dataSet, null);
+    }
+
+    // variant tells apart representations of the same data, e.g. compact JSON
+    public String getETag(String userId, String dataSet, String variant) {
+        UserDataVersion version = mongoTemplate.findById(userId, UserDataVersion.class);
+        if (version == null) {
+            // First read for this user, create the counters without bumping them
+            version = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(userId)),
+                initialValues(new Update()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                UserDataVersion.class);
+        }
+        Long counter = EXPENSES.equals(dataSet) ? version.getExpenses() : version.getProfile();
+        return "W/\"" + dataSet + "-" + version.getEpoch() + "-" + (counter == null ? 0 : counter)
+            + (variant == null ? "" : "-" + variant) + "\"";
+    }
+
+    // Weak comparison as If-None-Match requires: true when any entity tag has the same opaque value
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (opaqueTag(tag).equals(opaqueTag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private void bump(String userId, String dataSet) {
+        Update update = new Update().inc(dataSet, 1);
+        mongoTemplate.upsert(Query.query(Criteria.where("id").is(userId)), initialValues(update), UserDataVersion.class);
+    }
+
+    private Update initialValues(Update update) {
+        update.setOnInsert("epoch", UUID.randomUUID().toString().substring(0, 8));
+        for (String dataSet : new String[] { EXPENSES, PROFILE }) {
+            if (!update.modifies(dataSet)) {
+                update.setOnInsert(dataSet, 0L);
+            }
+        }
+        return update;
+    }
+}
@@ -0,0 +1,106 @@
+package com.expense.backend.service;
+
+import com.expense.backend.model.Expense;
+import com.expense.backend.util.XlsxStreamWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Exports rows straight from the MongoDB cursor, heap use does not depend on the row count
+@Service
+public class ExpenseExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_XLSX = "xlsx";
+
+    private static final String[] COLUMNS =
+        { "id", "expexpenseDate", "expname", "exppurpose", "expdescription", "expquantity", "expprice", "exptotalAmount" };
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    public void writeCsv(String userId, LocalDate from, LocalDate to, String timezone, String exppurpose,
+                         OutputStream out) throws IOException {
+        ZoneId zone = ZoneId.of(timezone);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        try (Stream<Expense> expenses = expenseService.streamExpenses(userId, from, to, timezone, exppurpose)) {
+            Iterator<Expense> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                Expense expense = iterator.next();
+                writer.write(csvField(expense.getId()));
+                writer.write(',');
+                writer.write(csvField(localDate(expense, zone)));
+                writer.write(',');
+                writer.write(csvField(expense.getExpname()));
+                writer.write(',');
+                writer.write(csvField(expense.getExppurpose()));
+                writer.write(',');
+                writer.write(csvField(expense.getExpdescription()));
+                writer.write(',');
+                writer.write(csvField(expense.getExpquantity()));
+                writer.write(',');
+                writer.write(csvField(expense.getExpprice()));
+                writer.write(',');
+                writer.write(csvField(expense.getExptotalAmount()));
+                writer.write("\r\n");
+            }
+        }
+        writer.flush();
+    }
+
+    public void writeXlsx(String userId, LocalDate from, LocalDate to, String timezone, String exppurpose,
+                          OutputStream out) throws IOException {
+        ZoneId zone = ZoneId.of(timezone);
+        XlsxStreamWriter writer = new XlsxStreamWriter(out, "Expenses", COLUMNS);
+        try (Stream<Expense> expenses = expenseService.streamExpenses(userId, from, to, timezone, exppurpose)) {
+            Iterator<Expense> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                Expense expense = iterator.next();
+                writer.addRow(new Object[] {
+                    expense.getId(),
+                    localDate(expense, zone),
+                    expense.getExpname(),
+                    expense.getExppurpose(),
+                    expense.getExpdescription(),
+                    expense.getExpquantity(),
+                    expense.getExpprice(),
+                    expense.getExptotalAmount()
+                });
+            }
+        }
+        writer.finish();
+    }
+
+    private LocalDate localDate(Expense expense, ZoneId zone) {
+        if (expense.getExpexpenseDate() == null) {
+            return null;
+        }
+        return expense.getExpexpenseDate().toInstant().atZone(zone).toLocalDate();
+    }
+
+    // Quotes only when needed, a leading formula character is neutralised for spreadsheet imports
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0 && !(value instanceof Number)) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,291 @@
+package com.expense.backend.service;
+
+import com.expense.backend.dto.CreateExpenseRequest;
+import com.expense.backend.dto.ExpenseItemResult;
+import com.expense.backend.model.Expense;
+import com.expense.backend.util.BoundedLineReader;
+import com.expense.backend.util.CsvRecordReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Reads CSV or NDJSON row by row and writes it through fixed size batches,
+// the next batch is only read once the previous insert has returned
+@Service
+public class ExpenseImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final List<String> CSV_COLUMNS =
+        List.of("expname", "exppurpose", "expdescription", "expquantity", "expprice", "expexpenseDate");
+
+    private static final String UTF8_BOM = "\uFEFF";
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${expense.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${expense.import.max-errors:1000}")
+    private int maxReportedErrors;
+
+    // Longest CSV record or NDJSON line in characters, longer rows are skipped with an error
+    @Value("${expense.import.max-row-length:65536}")
+    private int maxRowLength;
+
+    public void importExpenses(String userId, String format, InputStream in, OutputStream progress) throws IOException {
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        ImportState state = new ImportState(userId, progress);
+        long startedAt = System.nanoTime();
+
+        if (FORMAT_CSV.equals(format)) {
+            readCsv(reader, state);
+        } else {
+            readNdjson(reader, state);
+        }
+        flush(state);
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("type", "summary");
+        summary.put("rows", state.rows);
+        summary.put("created", state.created);
+        summary.put("failed", state.failed);
+        summary.put("errorsOmitted", Math.max(0, state.failed - state.reportedErrors));
+        summary.put("elapsedMillis", elapsedMillis);
+        summary.put("rowsPerSecond", state.rows * 1000 / elapsedMillis);
+        writeLine(progress, summary);
+    }
+
+    private void readNdjson(Reader in, ImportState state) throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(in, maxRowLength);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (reader.isOversized()) {
+                reportError(state, ++state.rows, rowTooLong());
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            long row = ++state.rows;
+            CreateExpenseRequest request;
+            try {
+                request = objectMapper.readValue(line, CreateExpenseRequest.class);
+            } catch (JsonProcessingException e) {
+                reportError(state, row, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            // A bare null line parses without error
+            if (request == null) {
+                reportError(state, row, "Expected a JSON object");
+                continue;
+            }
+            accept(state, row, request);
+        }
+    }
+
+    private void readCsv(Reader in, ImportState state) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(in, maxRowLength);
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            return;
+        }
+        if (reader.isOversized()) {
+            reportError(state, 0, "CSV header exceeds " + maxRowLength + " characters");
+            return;
+        }
+        // Excel writes UTF-8 CSVs with a byte order mark in front of the first column name
+        if (!header.isEmpty() && header.get(0).startsWith(UTF8_BOM)) {
+            header.set(0, header.get(0).substring(UTF8_BOM.length()));
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.put(header.get(i).trim(), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!positions.containsKey(column)) {
+                reportError(state, 0, "Missing CSV column: " + column);
+                return;
+            }
+        }
+
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            if (reader.isOversized()) {
+                reportError(state, ++state.rows, rowTooLong());
+                continue;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            long row = ++state.rows;
+            CreateExpenseRequest request = new CreateExpenseRequest();
+            try {
+                request.setExpname(column(record, positions, "expname"));
+                request.setExppurpose(column(record, positions, "exppurpose"));
+                request.setExpdescription(column(record, positions, "expdescription"));
+                request.setExpquantity(parseNumber(column(record, positions, "expquantity")));
+                request.setExpprice(parseNumber(column(record, positions, "expprice")));
+                request.setExpexpenseDate(parseDate(column(record, positions, "expexpenseDate")));
+            } catch (IllegalArgumentException e) {
+                reportError(state, row, e.getMessage());
+                continue;
+            }
+            accept(state, row, request);
+        }
+    }
+
+    private void accept(ImportState state, long row, CreateExpenseRequest request) throws IOException {
+        Set<ConstraintViolation<CreateExpenseRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            reportError(state, row, violations.stream()
+                .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", ")));
+            return;
+        }
+
+        // The model constructor derives exptotalAmount
+        state.batch.add(new Expense(
+            state.userId,
+            request.getExpname(),
+            request.getExppurpose(),
+            request.getExpdescription(),
+            request.getExpquantity(),
+            request.getExpprice(),
+            request.getExpexpenseDate()
+        ));
+        state.batchRows.add(row);
+        if (state.batch.size() >= batchSize) {
+            flush(state);
+        }
+    }
+
+    private void flush(ImportState state) throws IOException {
+        if (!state.batch.isEmpty()) {
+            for (ExpenseItemResult result : expenseService.createExpenses(state.batch)) {
+                if (result.isSuccess()) {
+                    state.created++;
+                } else {
+                    reportError(state, state.batchRows.get(result.getIndex()), result.getError());
+                }
+            }
+            state.batch = new ArrayList<>(batchSize);
+            state.batchRows = new ArrayList<>(batchSize);
+        }
+
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("type", "progress");
+        progress.put("rows", state.rows);
+        progress.put("created", state.created);
+        progress.put("failed", state.failed);
+        writeLine(state.progress, progress);
+        state.progress.flush();
+    }
+
+    // Errors past the cap are only counted so a bad file cannot grow the response without limit
+    private void reportError(ImportState state, long row, String error) throws IOException {
+        state.failed++;
+        if (state.reportedErrors >= maxReportedErrors) {
+            return;
+        }
+        state.reportedErrors++;
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", "error");
+        line.put("row", row);
+        line.put("error", error);
+        writeLine(state.progress, line);
+    }
+
+    private void writeLine(OutputStream out, Map<String, Object> line) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(line));
+        out.write('\n');
+    }
+
+    private String rowTooLong() {
+        return "Row exceeds " + maxRowLength + " characters";
+    }
+
+    private String column(List<String> record, Map<String, Integer> positions, String name) {
+        int position = positions.get(name);
+        if (position >= record.size()) {
+            return null;
+        }
+        String value = record.get(position).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Double parseNumber(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + value);
+        }
+    }
+
+    // Accepts 2024-01-31, 2024-01-31T10:15:30Z or epoch milliseconds
+    private Date parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (value.chars().allMatch(Character::isDigit)) {
+                return new Date(Long.parseLong(value));
+            }
+            if (value.length() == 10) {
+                return Date.from(LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant());
+            }
+            return Date.from(Instant.parse(value));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+
+    private class ImportState {
+        private final String userId;
+        private final OutputStream progress;
+        private List<Expense> batch = new ArrayList<>(batchSize);
+        private List<Long> batchRows = new ArrayList<>(batchSize);
+        private long rows;
+        private long created;
+        private long failed;
+        private long reportedErrors;
+
+        private ImportState(String userId, OutputStream progress) {
+            this.userId = userId;
+            this.progress = progress;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.expense.backend.service;
+
+import com.expense.backend.model.Expense;
+import com.expense.backend.model.User;
+import com.expense.backend.util.PdfReportWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.stream.Stream;
+
+@Service
+public class ExpenseReportService {
+
+    private static final String[] COLUMNS = { "Date", "Name", "Purpose", "Description", "Qty", "Price", "Total" };
+    private static final float[] COLUMN_WIDTHS = { 62, 95, 80, 125, 40, 56, 57 };
+    private static final boolean[] RIGHT_ALIGNED = { false, false, false, false, true, true, true };
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserService userService;
+
+    // Streams rows from the MongoDB cursor into the PDF, heap use does not depend on the row count
+    public void writePdfReport(String userId, LocalDate from, LocalDate to, String timezone, OutputStream out)
+            throws IOException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        dateFormat.setTimeZone(TimeZone.getTimeZone(timezone));
+
+        List<String> headerLines = new ArrayList<>();
+        headerLines.add("Expense Report");
+        userService.findById(userId).ifPresent(user -> headerLines.add(describeUser(user)));
+        headerLines.add("Period: " + (from == null ? "start" : from.toString()) + " to " + (to == null ? "today" : to.toString()));
+
+        PdfReportWriter writer = new PdfReportWriter(out, headerLines, COLUMNS, COLUMN_WIDTHS, RIGHT_ALIGNED);
+        double totalAmount = 0;
+        long count = 0;
+        try (Stream<Expense> expenses = expenseService.streamExpenses(userId, from, to, timezone)) {
+            Iterator<Expense> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                Expense expense = iterator.next();
+                writer.addRow(new String[] {
+                    expense.getExpexpenseDate() == null ? "" : dateFormat.format(expense.getExpexpenseDate()),
+                    expense.getExpname(),
+                    expense.getExppurpose(),
+                    expense.getExpdescription(),
+                    formatNumber(expense.getExpquantity()),
+                    formatNumber(expense.getExpprice()),
+                    formatNumber(expense.getExptotalAmount())
+                });
+                if (expense.getExptotalAmount() != null) {
+                    totalAmount += expense.getExptotalAmount();
+                }
+                count++;
+            }
+        }
+        writer.finish(List.of(
+            "Expenses: " + count,
+            "Total Amount: Rs. " + String.format(Locale.ROOT, "%.2f", totalAmount)
+        ));
+    }
+
+    private String describeUser(User user) {
+        return user.getUsername() + " <" + user.getUseremail() + ">";
+    }
+
+    private String formatNumber(Double value) {
+        return value == null ? "" : String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,450 @@
+package com.expense.backend.service;
+
+import com.expense.backend.dto.ExpenseSummaryBucket;
+import com.expense.backend.model.Expense;
+import com.expense.backend.model.ExpenseRollup;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Per-user daily, monthly and per-purpose totals kept in step with expense writes (UTC buckets)
+@Service
+public class ExpenseRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseRollupService.class);
+
+    private static final String DAY = "day";
+    private static final String MONTH = "month";
+    private static final String PURPOSE = "purpose";
+
+    private static final String STATE_COLLECTION = "expense_rollup_state";
+    private static final String RECONCILE_STATE_ID = "reconcile";
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    // Buckets written this close to the start of a reconcile run, or after it, are left to the next run.
+    // Also covers clock skew between this node and the MongoDB server that stamps updatedAt.
+    private static final long RECONCILE_QUIET_MS = 60000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    // Rollups are only read once they have been rebuilt from the source documents at least once
+    private volatile boolean rollupsReady = false;
+
+    private volatile Map<String, Object> lastReconcileReport = new LinkedHashMap<>();
+
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            if (mongoTemplate.getCollection(STATE_COLLECTION).find(new Document("_id", RECONCILE_STATE_ID)).first() != null) {
+                rollupsReady = true;
+            } else {
+                reconcile();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to initialise expense rollups", e);
+        }
+    }
+
+    public void onCreate(Expense expense) {
+        applyChanges(List.of(expense), List.of());
+    }
+
+    public void onCreate(List<Expense> expenses) {
+        applyChanges(expenses, List.of());
+    }
+
+    public void onUpdate(Expense before, Expense after) {
+        applyChanges(List.of(after), List.of(before));
+    }
+
+    public void onDelete(Expense expense) {
+        applyChanges(List.of(), List.of(expense));
+    }
+
+    // Per-bucket totals of the expenses a bulk delete is about to remove, read before the remove runs.
+    // An expense created or deleted concurrently under the same criteria is left to the nightly reconcile.
+    public List<ExpenseRollup> totalsFor(Criteria criteria) {
+        List<ExpenseRollup> totals = new ArrayList<>();
+        for (String granularity : List.of(DAY, MONTH, PURPOSE)) {
+            for (ExpenseRollup rollup : mongoTemplate.aggregate(bucketAggregation(granularity, criteria), Expense.class,
+                    ExpenseRollup.class).getMappedResults()) {
+                rollup.setGranularity(granularity);
+                totals.add(rollup);
+            }
+        }
+        return totals;
+    }
+
+    public void onDeleteTotals(List<ExpenseRollup> totals) {
+        try {
+            Map<String, double[]> deltas = new HashMap<>();
+            Map<String, String[]> buckets = new HashMap<>();
+            for (ExpenseRollup rollup : totals) {
+                String[] bucket = { rollup.getUserId(), rollup.getGranularity(), rollup.getKey() };
+                String id = bucket[0] + ":" + bucket[1] + ":" + bucket[2];
+                deltas.put(id, new double[] { -rollup.getTotalAmount(), -rollup.getCount() });
+                buckets.put(id, bucket);
+            }
+            writeDeltas(deltas, buckets);
+        } catch (Exception e) {
+            logger.error("Failed to apply expense rollup changes, the next reconcile repairs them", e);
+            metricsService.increment("expense_rollup_failures_total", "Incremental rollup writes that failed");
+        }
+    }
+
+    // Summary from rollups, or null when the request cannot be answered from UTC day/month/purpose buckets
+    public List<ExpenseSummaryBucket> getSummary(String userId, String groupBy, LocalDate from, LocalDate to,
+                                                 String timezone) {
+        if (!rollupsReady || !"UTC".equals(timezone)) {
+            return null;
+        }
+        boolean wholeMonths = (from == null || from.getDayOfMonth() == 1)
+            && (to == null || to.getDayOfMonth() == to.lengthOfMonth());
+        boolean wholeYears = (from == null || from.getDayOfYear() == 1)
+            && (to == null || to.getDayOfYear() == to.lengthOfYear());
+
+        switch (groupBy) {
+            case "day":
+                return readBuckets(userId, DAY, from == null ? null : from.toString(), to == null ? null : to.toString(), -1);
+            case "month":
+                if (!wholeMonths) {
+                    return null;
+                }
+                return readBuckets(userId, MONTH, monthKey(from), monthKey(to), -1);
+            case "year":
+                if (!wholeYears) {
+                    return null;
+                }
+                return readBuckets(userId, MONTH, monthKey(from), monthKey(to), 4);
+            case "purpose":
+                if (from != null || to != null) {
+                    return null;
+                }
+                return readBuckets(userId, PURPOSE, null, null, -1);
+            default:
+                return null;
+        }
+    }
+
+    // Rebuild rollups from the expense collection and report buckets that had drifted
+    @Scheduled(cron = "${expense.rollup.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        if (!reconcileLock.tryLock()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            long start = System.currentTimeMillis();
+            Date runStart = new Date(start);
+            long checked = 0;
+            long drifted = 0;
+            long skipped = 0;
+            for (String granularity : List.of(DAY, MONTH, PURPOSE)) {
+                List<ExpenseRollup> batch = new ArrayList<>(RECONCILE_BATCH_SIZE);
+                try (Stream<ExpenseRollup> expected = mongoTemplate.aggregateStream(
+                        bucketAggregation(granularity, null), Expense.class, ExpenseRollup.class)) {
+                    for (ExpenseRollup rollup : (Iterable<ExpenseRollup>) expected::iterator) {
+                        batch.add(rollup);
+                        if (batch.size() == RECONCILE_BATCH_SIZE) {
+                            long[] result = reconcileBatch(batch, granularity, runStart);
+                            drifted += result[0];
+                            skipped += result[1];
+                            checked += batch.size();
+                            batch.clear();
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    long[] result = reconcileBatch(batch, granularity, runStart);
+                    drifted += result[0];
+                    skipped += result[1];
+                    checked += batch.size();
+                }
+            }
+
+            // Buckets no source document maps to any more, unless a live write touched them during the run
+            long stale = mongoTemplate.remove(new Query(new Criteria().andOperator(
+                new Criteria().orOperator(
+                    Criteria.where("reconciledAt").lt(runStart),
+                    Criteria.where("reconciledAt").exists(false)),
+                new Criteria().orOperator(
+                    Criteria.where("updatedAt").lt(quietSince(runStart)),
+                    Criteria.where("updatedAt").exists(false)))), ExpenseRollup.class).getDeletedCount();
+
+            mongoTemplate.getCollection(STATE_COLLECTION).replaceOne(
+                new Document("_id", RECONCILE_STATE_ID),
+                new Document("_id", RECONCILE_STATE_ID).append("lastRun", runStart),
+                new ReplaceOptions().upsert(true));
+            rollupsReady = true;
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("lastRun", runStart);
+            report.put("bucketsChecked", checked);
+            report.put("bucketsDrifted", drifted);
+            report.put("bucketsSkipped", skipped);
+            report.put("bucketsRemoved", stale);
+            report.put("durationMs", System.currentTimeMillis() - start);
+            lastReconcileReport = report;
+            if (drifted > 0 || stale > 0) {
+                logger.warn("Expense rollup reconcile corrected {} drifted and removed {} stale buckets, skipped {} busy ones",
+                    drifted, stale, skipped);
+            } else {
+                logger.info("Expense rollup reconcile checked {} buckets, no drift", checked);
+            }
+        } catch (Exception e) {
+            logger.error("Expense rollup reconcile failed", e);
+        } finally {
+            reconcileLock.unlock();
+            metricsService.recordNanos("scheduled_job_seconds", "Scheduled job run time", System.nanoTime() - startNanos,
+                "job", "rollupReconcile");
+        }
+    }
+
+    public Map<String, Object> getLastReconcileReport() {
+        return lastReconcileReport;
+    }
+
+    // Runs after the expense write has succeeded. A failure here is logged and left to the nightly
+    // reconcile, so the caller does not answer 500 for a write that is already stored.
+    private void applyChanges(List<Expense> added, List<Expense> removed) {
+        try {
+            // Per-bucket $inc upserts are atomic, all buckets for the change go in one round trip
+            Map<String, double[]> deltas = new HashMap<>();
+            Map<String, String[]> buckets = new HashMap<>();
+            collectDeltas(added, 1, deltas, buckets);
+            collectDeltas(removed, -1, deltas, buckets);
+
+            writeDeltas(deltas, buckets);
+        } catch (Exception e) {
+            logger.error("Failed to apply expense rollup changes, the next reconcile repairs them", e);
+            metricsService.increment("expense_rollup_failures_total", "Incremental rollup writes that failed");
+        }
+    }
+
+    private void writeDeltas(Map<String, double[]> deltas, Map<String, String[]> buckets) {
+        // An update that leaves every bucket unchanged needs no write
+        deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ExpenseRollup.class);
+        deltas.forEach((id, delta) -> {
+            String[] bucket = buckets.get(id);
+            Update update = new Update()
+                .setOnInsert("userId", bucket[0])
+                .setOnInsert("granularity", bucket[1])
+                .setOnInsert("key", bucket[2])
+                .setOnInsert("reconciledAt", new Date())
+                .currentDate("updatedAt")
+                .inc("totalAmount", delta[0])
+                .inc("count", (long) delta[1]);
+            bulkOps.upsert(Query.query(Criteria.where("id").is(id)), update);
+        });
+        bulkOps.execute();
+    }
+
+    private void collectDeltas(List<Expense> expenses, int sign, Map<String, double[]> deltas, Map<String, String[]> buckets) {
+        for (Expense expense : expenses) {
+            double amount = expense.getExptotalAmount() == null ? 0 : expense.getExptotalAmount();
+            for (String[] bucket : bucketsFor(expense)) {
+                String id = bucket[0] + ":" + bucket[1] + ":" + bucket[2];
+                double[] delta = deltas.computeIfAbsent(id, k -> new double[2]);
+                delta[0] += sign * amount;
+                delta[1] += sign;
+                buckets.put(id, bucket);
+            }
+        }
+    }
+
+    private List<String[]> bucketsFor(Expense expense) {
+        List<String[]> result = new ArrayList<>(3);
+        if (expense.getExpexpenseDate() != null) {
+            result.add(new String[] { expense.getUserId(), DAY, utcFormat("yyyy-MM-dd").format(expense.getExpexpenseDate()) });
+            result.add(new String[] { expense.getUserId(), MONTH, utcFormat("yyyy-MM").format(expense.getExpexpenseDate()) });
+        }
+        if (expense.getExppurpose() != null) {
+            result.add(new String[] { expense.getUserId(), PURPOSE, expense.getExppurpose() });
+        }
+        return result;
+    }
+
+    private List<ExpenseSummaryBucket> readBuckets(String userId, String granularity, String fromKey, String toKey,
+                                                   int keyLength) {
+        // Date keys are zero-padded, so string order is chronological and the range runs on the index
+        Criteria criteria = Criteria.where("userId").is(userId).and("granularity").is(granularity);
+        if (fromKey != null || toKey != null) {
+            Criteria keyCriteria = criteria.and("key");
+            if (fromKey != null) {
+                keyCriteria.gte(fromKey);
+            }
+            if (toKey != null) {
+                keyCriteria.lte(toKey);
+            }
+        }
+        criteria.and("count").gt(0);
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "key"));
+        query.fields().include("key", "totalAmount", "count");
+
+        Map<String, ExpenseSummaryBucket> result = new TreeMap<>();
+        for (ExpenseRollup rollup : mongoTemplate.find(query, ExpenseRollup.class)) {
+            String key = keyLength > 0 ? rollup.getKey().substring(0, keyLength) : rollup.getKey();
+            ExpenseSummaryBucket bucket = result.computeIfAbsent(key, k -> new ExpenseSummaryBucket(k, 0.0, 0L));
+            bucket.setTotalAmount(bucket.getTotalAmount() + rollup.getTotalAmount());
+            bucket.setCount(bucket.getCount() + rollup.getCount());
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    // Returns { drifted, skipped }. Corrections are increments by the difference, applied only while the
+    // bucket still holds the values read here, so a live $inc landing in between is never overwritten.
+    private long[] reconcileBatch(List<ExpenseRollup> expected, String granularity, Date runStart) {
+        expected.forEach(rollup -> rollup.setId(rollup.getUserId() + ":" + granularity + ":" + rollup.getKey()));
+        Map<String, ExpenseRollup> stored = mongoTemplate.find(
+                Query.query(Criteria.where("id").in(expected.stream().map(ExpenseRollup::getId).collect(Collectors.toList()))),
+                ExpenseRollup.class)
+            .stream()
+            .collect(Collectors.toMap(ExpenseRollup::getId, rollup -> rollup));
+
+        long drifted = 0;
+        long skipped = 0;
+        Date quietSince = quietSince(runStart);
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ExpenseRollup.class);
+        for (ExpenseRollup rollup : expected) {
+            ExpenseRollup current = stored.get(rollup.getId());
+            if (current == null) {
+                // A live write may create the bucket first, then only its own delta is in it until the next run
+                drifted++;
+                bulkOps.upsert(Query.query(Criteria.where("id").is(rollup.getId())), new Update()
+                    .setOnInsert("userId", rollup.getUserId())
+                    .setOnInsert("granularity", granularity)
+                    .setOnInsert("key", rollup.getKey())
+                    .setOnInsert("totalAmount", rollup.getTotalAmount())
+                    .setOnInsert("count", rollup.getCount())
+                    .set("reconciledAt", runStart));
+            } else if (recentlyUpdated(current, quietSince)) {
+                // The aggregation may not have seen the write behind this update yet
+                skipped++;
+                bulkOps.updateOne(Query.query(Criteria.where("id").is(rollup.getId())),
+                    Update.update("reconciledAt", runStart));
+            } else if (drifted(rollup, current)) {
+                drifted++;
+                bulkOps.updateOne(unchangedSince(current), correction(rollup, current, runStart));
+            } else {
+                bulkOps.updateOne(Query.query(Criteria.where("id").is(rollup.getId())),
+                    Update.update("reconciledAt", runStart));
+            }
+        }
+        bulkOps.execute();
+        return new long[] { drifted, skipped };
+    }
+
+    static Date quietSince(Date runStart) {
+        return new Date(runStart.getTime() - RECONCILE_QUIET_MS);
+    }
+
+    static boolean recentlyUpdated(ExpenseRollup current, Date quietSince) {
+        return current.getUpdatedAt() != null && !current.getUpdatedAt().before(quietSince);
+    }
+
+    static boolean drifted(ExpenseRollup expected, ExpenseRollup current) {
+        return !Objects.equals(expected.getCount(), current.getCount())
+            || Math.abs(amount(expected) - amount(current)) > 1e-6 * Math.max(1, Math.abs(amount(expected)));
+    }
+
+    // Matches the bucket only while it still holds the totals the correction was computed from
+    static Query unchangedSince(ExpenseRollup current) {
+        return Query.query(Criteria.where("id").is(current.getId())
+            .and("totalAmount").is(current.getTotalAmount())
+            .and("count").is(current.getCount()));
+    }
+
+    static Update correction(ExpenseRollup expected, ExpenseRollup current, Date runStart) {
+        long currentCount = current.getCount() == null ? 0 : current.getCount();
+        long expectedCount = expected.getCount() == null ? 0 : expected.getCount();
+        return new Update()
+            .inc("totalAmount", amount(expected) - amount(current))
+            .inc("count", expectedCount - currentCount)
+            .set("reconciledAt", runStart);
+    }
+
+    private static double amount(ExpenseRollup rollup) {
+        return rollup.getTotalAmount() == null ? 0 : rollup.getTotalAmount();
+    }
+
+    // One entry per user and bucket key with its total and count, over all expenses or those matching scope
+    private Aggregation bucketAggregation(String granularity, Criteria scope) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        if (scope != null) {
+            operations.add(Aggregation.match(scope));
+        }
+        if (PURPOSE.equals(granularity)) {
+            operations.add(Aggregation.match(Criteria.where("exppurpose").ne(null)));
+            operations.add(Aggregation.group("userId", "exppurpose").sum("exptotalAmount").as("totalAmount").count().as("count"));
+            operations.add(Aggregation.project("totalAmount", "count")
+                .and("userId").as("userId")
+                .and("exppurpose").as("key")
+                .andExclude("_id"));
+            return Aggregation.newAggregation(operations);
+        }
+        AggregationExpression key = DateOperators.dateOf("expexpenseDate")
+            .withTimezone(DateOperators.Timezone.valueOf("UTC"))
+            .toString(DAY.equals(granularity) ? "%Y-%m-%d" : "%Y-%m");
+        operations.add(Aggregation.match(Criteria.where("expexpenseDate").ne(null)));
+        operations.add(Aggregation.project("userId", "exptotalAmount").and(key).as("key"));
+        operations.add(Aggregation.group("userId", "key").sum("exptotalAmount").as("totalAmount").count().as("count"));
+        operations.add(Aggregation.project("totalAmount", "count")
+            .and("userId").as("userId")
+            .and("key").as("key")
+            .andExclude("_id"));
+        return Aggregation.newAggregation(operations);
+    }
+
+    private String monthKey(LocalDate date) {
+        return date == null ? null : date.toString().substring(0, 7);
+    }
+
+    private SimpleDateFormat utcFormat(String pattern) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+}
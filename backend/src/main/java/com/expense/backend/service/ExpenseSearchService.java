@@ -0,0 +1,163 @@
+package com.expense.backend.service;
+
+import com.expense.backend.dto.ExpenseSearchResponse;
+import com.expense.backend.model.Expense;
+import com.expense.backend.util.SearchTerms;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Search over expname, exppurpose and expdescription, always scoped to one user.
+// "text" ranks whole words with the userId_text index, "prefix" matches word prefixes through the
+// userId_searchPrefixes_expexpenseDate index newest first, "auto" uses text and falls back to prefix
+// when no whole word matches, which is what happens while a word is still being typed.
+@Service
+public class ExpenseSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseSearchService.class);
+
+    public static final String MODE_AUTO = "auto";
+    public static final String MODE_TEXT = "text";
+    public static final String MODE_PREFIX = "prefix";
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "expexpenseDate", "id");
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    // Holds one document per finished one-off job, so restarts skip the collection scan
+    private static final String SEARCH_STATE_COLLECTION = "expense_search_state";
+    private static final String BACKFILL_MARKER_ID = "backfill";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${expense.search.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${expense.search.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${expense.search.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    public ExpenseSearchResponse search(String userId, String q, String mode, Integer page, Integer size) {
+        List<String> terms = SearchTerms.queryTerms(q);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search needs at least one term of " + SearchTerms.MIN_PREFIX_LENGTH
+                + " or more letters or digits");
+        }
+        String searchMode = mode == null || mode.isEmpty() ? MODE_AUTO : mode.toLowerCase(Locale.ROOT);
+        if (!MODE_AUTO.equals(searchMode) && !MODE_TEXT.equals(searchMode) && !MODE_PREFIX.equals(searchMode)) {
+            throw new IllegalArgumentException("mode must be auto, text or prefix");
+        }
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+
+        long start = System.nanoTime();
+        try {
+            if (!MODE_PREFIX.equals(searchMode)) {
+                List<String> words = SearchTerms.textTerms(q);
+                List<Expense> expenses = findPage(textQuery(userId, words), pageNumber, pageSize);
+                // Later pages stay in text mode as long as the terms match whole words at all
+                if (MODE_TEXT.equals(searchMode) || !expenses.isEmpty()
+                        || pageNumber > 0 && mongoTemplate.exists(textQuery(userId, words), Expense.class)) {
+                    return response(expenses, MODE_TEXT, pageNumber, pageSize);
+                }
+            }
+            return response(findPage(prefixQuery(userId, terms), pageNumber, pageSize), MODE_PREFIX, pageNumber, pageSize);
+        } finally {
+            metricsService.recordNanos("expense_search_seconds", "Expense search time", System.nanoTime() - start,
+                "mode", searchMode);
+        }
+    }
+
+    // Expenses written before prefix search existed get their searchPrefixes once, in batches.
+    // Every later write stores them itself, so a completed run is recorded and never repeated.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSearchPrefixes() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        Query marker = Query.query(Criteria.where("_id").is(BACKFILL_MARKER_ID));
+        if (mongoTemplate.exists(marker, SEARCH_STATE_COLLECTION)) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("searchPrefixes").exists(false));
+        query.fields().include("expname", "exppurpose", "expdescription");
+
+        long start = System.nanoTime();
+        long updated = 0;
+        try (Stream<Expense> expenses = mongoTemplate.stream(query, Expense.class)) {
+            BulkOperations bulkOps = null;
+            int pending = 0;
+            for (Expense expense : (Iterable<Expense>) expenses::iterator) {
+                if (bulkOps == null) {
+                    bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class);
+                }
+                bulkOps.updateOne(Query.query(Criteria.where("id").is(expense.getId())), Update.update("searchPrefixes",
+                    SearchTerms.prefixes(expense.getExpname(), expense.getExppurpose(), expense.getExpdescription())));
+                if (++pending == BACKFILL_BATCH_SIZE) {
+                    updated += bulkOps.execute().getModifiedCount();
+                    bulkOps = null;
+                    pending = 0;
+                }
+            }
+            if (bulkOps != null) {
+                updated += bulkOps.execute().getModifiedCount();
+            }
+            mongoTemplate.upsert(marker, Update.update("completedAt", new Date()), SEARCH_STATE_COLLECTION);
+        } catch (Exception e) {
+            logger.error("Failed to backfill expense search prefixes, retrying on next startup", e);
+        }
+        if (updated > 0) {
+            logger.info("Backfilled search prefixes for {} expenses in {} ms", updated,
+                (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private Query textQuery(String userId, List<String> terms) {
+        // Equality on userId is required by the compound text index and keeps the scan to one user
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matchingAny(terms.toArray(new String[0])))
+            .sortByScore()
+            .addCriteria(Criteria.where("userId").is(userId));
+        return query.with(NEWEST_FIRST);
+    }
+
+    private Query prefixQuery(String userId, List<String> terms) {
+        return Query.query(Criteria.where("userId").is(userId).and("searchPrefixes").all(terms))
+            .with(NEWEST_FIRST);
+    }
+
+    // One extra document tells whether another page exists without counting every match
+    private List<Expense> findPage(Query query, int pageNumber, int pageSize) {
+        query.skip((long) pageNumber * pageSize).limit(pageSize + 1);
+        query.fields().exclude("searchPrefixes");
+        return mongoTemplate.find(query, Expense.class);
+    }
+
+    private ExpenseSearchResponse response(List<Expense> expenses, String mode, int pageNumber, int pageSize) {
+        boolean hasMore = expenses.size() > pageSize;
+        List<Expense> pageOfExpenses = hasMore ? expenses.subList(0, pageSize) : expenses;
+        return new ExpenseSearchResponse(pageOfExpenses, mode, pageNumber, pageSize, hasMore);
+    }
+}
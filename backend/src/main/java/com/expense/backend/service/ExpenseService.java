@@ -1,13 +1,46 @@
 package com.expense.backend.service;
 
+import com.expense.backend.dto.ExpenseItemResult;
+import com.expense.backend.dto.ExpensePageResponse;
+import com.expense.backend.dto.ExpenseSummaryBucket;
 import com.expense.backend.model.Expense;
+import com.expense.backend.model.ExpenseRollup;
 import com.expense.backend.repository.ExpenseRepository;
+import com.expense.backend.util.SearchTerms;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class ExpenseService {
@@ -15,52 +48,361 @@ public class ExpenseService {
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Value("${expense.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${expense.page.max-size:500}")
+    private int maxPageSize;
+
+    // Newest first, _id breaks ties between expenses on the same date
+    private static final Sort CURSOR_SORT = Sort.by(Sort.Direction.DESC, "expexpenseDate", "id");
+
+    // Cursor position of an expense without expexpenseDate
+    private static final String UNDATED_CURSOR = "null";
+
+    // Partial text updates that keep losing the race to other writes give up with a conflict
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+
     public Expense createExpense(String userId, String expname, String exppurpose, String expdescription,
                                   Double expquantity, Double expprice, Date expexpenseDate) {
         Expense expense = new Expense(userId, expname, exppurpose, expdescription, expquantity, expprice, expexpenseDate);
-        return expenseRepository.save(expense);
+        Expense savedExpense = expenseRepository.save(expense);
+        expenseRollupService.onCreate(savedExpense);
+        dataVersionService.bumpExpenses(userId);
+        return savedExpense;
+    }
+
+    // One unordered bulk insert, a failing document does not stop the others
+    public List<ExpenseItemResult> createExpenses(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Ids are assigned up front because bulk inserts do not write generated ids back
+        expenses.forEach(expense -> expense.setId(new ObjectId().toHexString()));
+
+        Map<Integer, String> failures = new HashMap<>();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class);
+        bulkOps.insert(expenses);
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+        }
+
+        List<ExpenseItemResult> results = new ArrayList<>(expenses.size());
+        List<Expense> created = new ArrayList<>(expenses.size());
+        for (int i = 0; i < expenses.size(); i++) {
+            Expense expense = expenses.get(i);
+            if (failures.containsKey(i)) {
+                results.add(new ExpenseItemResult(i, false, null, failures.get(i)));
+            } else {
+                results.add(new ExpenseItemResult(i, true, expense.getId(), null));
+                created.add(expense);
+            }
+        }
+        expenseRollupService.onCreate(created);
+        if (!created.isEmpty()) {
+            dataVersionService.bumpExpenses(created.get(0).getUserId());
+        }
+        return results;
     }
 
     public List<Expense> getExpensesByUserId(String userId) {
         return expenseRepository.findByUserId(userId);
     }
 
+    public ExpensePageResponse getExpensePage(String userId, String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        PageRequest pageRequest = PageRequest.of(0, pageSize, CURSOR_SORT);
+
+        List<Expense> expenses;
+        if (cursor == null || cursor.isEmpty()) {
+            expenses = expenseRepository.findByUserId(userId, pageRequest);
+        } else {
+            String[] position = decodeCursor(cursor);
+            if (UNDATED_CURSOR.equals(position[0])) {
+                expenses = expenseRepository.findByUserIdAfterUndatedCursor(userId, new ObjectId(position[1]), pageRequest);
+            } else {
+                expenses = expenseRepository.findByUserIdAfterCursor(userId,
+                    new Date(Long.parseLong(position[0])), new ObjectId(position[1]), pageRequest);
+            }
+        }
+
+        String nextCursor = null;
+        if (expenses.size() == pageSize) {
+            nextCursor = encodeCursor(expenses.get(expenses.size() - 1));
+        }
+        return new ExpensePageResponse(expenses, nextCursor);
+    }
+
+    public Stream<Expense> streamExpensesByUserId(String userId) {
+        return expenseRepository.streamByUserId(userId, CURSOR_SORT);
+    }
+
+    // Totals and counts grouped by day, month, year or purpose, computed by MongoDB
+    public List<ExpenseSummaryBucket> getExpenseSummary(String userId, String groupBy, LocalDate from, LocalDate to,
+                                                        String timezone) {
+        ZoneId zone = ZoneId.of(timezone);
+
+        // Served from the incrementally maintained rollups when the buckets line up
+        List<ExpenseSummaryBucket> rollupBuckets = expenseRollupService.getSummary(userId, groupBy, from, to, zone.getId());
+        if (rollupBuckets != null) {
+            return rollupBuckets;
+        }
+
+        Criteria criteria = userDateCriteria(userId, from, to, zone);
+
+        Aggregation aggregation;
+        if ("purpose".equals(groupBy)) {
+            aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group("exppurpose").sum("exptotalAmount").as("totalAmount").count().as("count"),
+                Aggregation.project("totalAmount", "count").and("_id").as("key").andExclude("_id"),
+                Aggregation.sort(Sort.Direction.ASC, "key")
+            );
+        } else {
+            AggregationExpression key = DateOperators.dateOf("expexpenseDate")
+                .withTimezone(DateOperators.Timezone.valueOf(mongoTimezone(zone)))
+                .toString(dateFormat(groupBy));
+            aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.project("exptotalAmount").and(key).as("key"),
+                Aggregation.group("key").sum("exptotalAmount").as("totalAmount").count().as("count"),
+                Aggregation.project("totalAmount", "count").and("_id").as("key").andExclude("_id"),
+                Aggregation.sort(Sort.Direction.ASC, "key")
+            );
+        }
+
+        return mongoTemplate.aggregate(aggregation, Expense.class, ExpenseSummaryBucket.class).getMappedResults();
+    }
+
+    // Oldest first, backed by a MongoDB cursor, callers must close the stream
+    public Stream<Expense> streamExpenses(String userId, LocalDate from, LocalDate to, String timezone) {
+        return streamExpenses(userId, from, to, timezone, null);
+    }
+
+    public Stream<Expense> streamExpenses(String userId, LocalDate from, LocalDate to, String timezone,
+                                          String exppurpose) {
+        Criteria criteria = userDateCriteria(userId, from, to, ZoneId.of(timezone));
+        if (exppurpose != null && !exppurpose.isEmpty()) {
+            criteria.and("exppurpose").is(exppurpose);
+        }
+        Query query = Query.query(criteria)
+            .with(Sort.by(Sort.Direction.ASC, "expexpenseDate", "id"));
+        query.fields().exclude("searchPrefixes");
+        return mongoTemplate.stream(query, Expense.class);
+    }
+
     public Optional<Expense> findByIdAndUserId(String id, String userId) {
         Expense expense = expenseRepository.findByIdAndUserId(id, userId);
         return expense != null ? Optional.of(expense) : Optional.empty();
     }
 
-    public Expense updateExpense(Expense expense, String expname, String exppurpose, String expdescription,
-                                  Double expquantity, Double expprice, Date expexpenseDate) {
-        if (expname != null && !expname.isEmpty()) {
-            expense.setExpname(expname);
+    // One findAndModify that sets only the given fields and recomputes the total on the server.
+    // With expectedVersion the write only applies to that version, otherwise a conflict is raised.
+    public Optional<Expense> updateExpense(String id, String userId, Long expectedVersion, String expname,
+                                           String exppurpose, String expdescription, Double expquantity,
+                                           Double expprice, Date expexpenseDate) {
+        boolean nameGiven = expname != null && !expname.isEmpty();
+        boolean purposeGiven = exppurpose != null && !exppurpose.isEmpty();
+        boolean descriptionGiven = expdescription != null && !expdescription.isEmpty();
+
+        for (int attempt = 1; ; attempt++) {
+            // Prefixes cover all three text fields, so a partial text update reads the others first
+            // and pins the write to the version they were read at
+            Long writeVersion = expectedVersion;
+            List<String> searchPrefixes = null;
+            if (nameGiven && purposeGiven && descriptionGiven) {
+                searchPrefixes = SearchTerms.prefixes(expname, exppurpose, expdescription);
+            } else if (nameGiven || purposeGiven || descriptionGiven) {
+                Query currentQuery = Query.query(Criteria.where("id").is(id).and("userId").is(userId));
+                currentQuery.fields().include("expname", "exppurpose", "expdescription", "version");
+                Expense current = mongoTemplate.findOne(currentQuery, Expense.class);
+                if (current == null) {
+                    return Optional.empty();
+                }
+                long currentVersion = current.getVersion() == null ? 0L : current.getVersion();
+                if (expectedVersion != null && expectedVersion != currentVersion) {
+                    throw new OptimisticLockingFailureException("Expense " + id + " was modified by another request");
+                }
+                writeVersion = currentVersion;
+                searchPrefixes = SearchTerms.prefixes(
+                    nameGiven ? expname : current.getExpname(),
+                    purposeGiven ? exppurpose : current.getExppurpose(),
+                    descriptionGiven ? expdescription : current.getExpdescription());
+            }
+
+            Criteria criteria = Criteria.where("id").is(id).and("userId").is(userId);
+            if (writeVersion != null) {
+                // Documents written before versioning have no field, they count as version 0
+                criteria.and("version").in(writeVersion == 0 ? Arrays.asList(0L, null) : List.of(writeVersion));
+            }
+
+            Date updatedAt = new Date();
+            AggregationUpdate update = AggregationUpdate.update();
+            if (nameGiven) {
+                update.set("expname").toValue(LiteralOperators.Literal.asLiteral(expname));
+            }
+            if (purposeGiven) {
+                update.set("exppurpose").toValue(LiteralOperators.Literal.asLiteral(exppurpose));
+            }
+            if (descriptionGiven) {
+                update.set("expdescription").toValue(LiteralOperators.Literal.asLiteral(expdescription));
+            }
+            if (searchPrefixes != null) {
+                update.set("searchPrefixes").toValue(LiteralOperators.Literal.asLiteral(searchPrefixes));
+            }
+            if (expquantity != null) {
+                update.set("expquantity").toValue(expquantity);
+            }
+            if (expprice != null) {
+                update.set("expprice").toValue(expprice);
+            }
+            if (expexpenseDate != null) {
+                update.set("expexpenseDate").toValue(expexpenseDate);
+            }
+            update.set("updatedAt").toValue(updatedAt);
+            update.set("version").toValue(ArithmeticOperators.Add.valueOf(
+                ConditionalOperators.ifNull("version").then(0L)).add(1L));
+            if (expquantity != null || expprice != null) {
+                // Separate stage so it sees the quantity and price set above. A legacy document missing
+                // the other factor keeps its stored total.
+                update.set("exptotalAmount").toValue(ConditionalOperators.ifNull(
+                    ArithmeticOperators.Multiply.valueOf("expquantity").multiplyBy("expprice")).thenValueOf("exptotalAmount"));
+            }
+
+            // The previous document comes back for the rollups, the new one is derived from it
+            Query query = Query.query(criteria);
+            query.fields().exclude("searchPrefixes");
+            Expense before = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(false), Expense.class);
+            if (before == null) {
+                if (writeVersion == null
+                        || !mongoTemplate.exists(Query.query(Criteria.where("id").is(id).and("userId").is(userId)), Expense.class)) {
+                    return Optional.empty();
+                }
+                // Another write landed after the text fields were read, read them again
+                if (expectedVersion == null && attempt < MAX_UPDATE_ATTEMPTS) {
+                    continue;
+                }
+                throw new OptimisticLockingFailureException("Expense " + id + " was modified by another request");
+            }
+
+            Expense after = new Expense();
+            after.setId(before.getId());
+            after.setUserId(before.getUserId());
+            after.setExpname(nameGiven ? expname : before.getExpname());
+            after.setExppurpose(purposeGiven ? exppurpose : before.getExppurpose());
+            after.setExpdescription(descriptionGiven ? expdescription : before.getExpdescription());
+            after.setExpquantity(expquantity != null ? expquantity : before.getExpquantity());
+            after.setExpprice(expprice != null ? expprice : before.getExpprice());
+            after.setExpexpenseDate(expexpenseDate != null ? expexpenseDate : before.getExpexpenseDate());
+            if ((expquantity != null || expprice != null) && after.getExpquantity() != null && after.getExpprice() != null) {
+                after.setExptotalAmount(after.getExpquantity() * after.getExpprice());
+            } else {
+                after.setExptotalAmount(before.getExptotalAmount());
+            }
+            after.setCreatedAt(before.getCreatedAt());
+            after.setUpdatedAt(updatedAt);
+            after.setVersion((before.getVersion() == null ? 0L : before.getVersion()) + 1);
+
+            expenseRollupService.onUpdate(before, after);
+            dataVersionService.bumpExpenses(userId);
+            return Optional.of(after);
         }
-        if (exppurpose != null && !exppurpose.isEmpty()) {
-            expense.setExppurpose(exppurpose);
+    }
+
+    // One findAndRemove scoped to the user, empty when nothing matched
+    public Optional<Expense> deleteExpense(String id, String userId) {
+        // findAndRemove hands back the deleted document so its totals can be taken off the rollups
+        Query query = Query.query(Criteria.where("id").is(id).and("userId").is(userId));
+        query.fields().exclude("searchPrefixes");
+        Expense deletedExpense = mongoTemplate.findAndRemove(query, Expense.class);
+        if (deletedExpense != null) {
+            expenseRollupService.onDelete(deletedExpense);
+            dataVersionService.bumpExpenses(userId);
         }
-        if (expdescription != null && !expdescription.isEmpty()) {
-            expense.setExpdescription(expdescription);
+        return Optional.ofNullable(deletedExpense);
+    }
+
+    // Deletes by ids and/or date range, always scoped to the user, in one remove. The rollup totals of the
+    // matching expenses are aggregated just before it and subtracted after. The nightly reconcile is the
+    // correctness backstop for expenses created or deleted concurrently under the same criteria.
+    public long deleteExpenses(String userId, List<String> ids, LocalDate from, LocalDate to, String timezone) {
+        Criteria criteria = userDateCriteria(userId, from, to, ZoneId.of(timezone));
+        if (ids != null && !ids.isEmpty()) {
+            criteria.and("id").in(ids);
         }
-        if (expquantity != null) {
-            expense.setExpquantity(expquantity);
+
+        List<ExpenseRollup> totals = expenseRollupService.totalsFor(criteria);
+        long deleted = mongoTemplate.remove(Query.query(criteria), Expense.class).getDeletedCount();
+        if (deleted > 0) {
+            expenseRollupService.onDeleteTotals(totals);
+            dataVersionService.bumpExpenses(userId);
         }
-        if (expprice != null) {
-            expense.setExpprice(expprice);
+        return deleted;
+    }
+
+    // Both dates are inclusive whole days in the given zone
+    private Criteria userDateCriteria(String userId, LocalDate from, LocalDate to, ZoneId zone) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria dateCriteria = criteria.and("expexpenseDate");
+            if (from != null) {
+                dateCriteria.gte(Date.from(from.atStartOfDay(zone).toInstant()));
+            }
+            if (to != null) {
+                dateCriteria.lt(Date.from(to.plusDays(1).atStartOfDay(zone).toInstant()));
+            }
         }
-        if (expexpenseDate != null) {
-            expense.setExpexpenseDate(expexpenseDate);
+        return criteria;
+    }
+
+    // MongoDB takes Olson names and +hh:mm offsets, not Java's fixed-offset ids such as GMT+5
+    private String mongoTimezone(ZoneId zone) {
+        ZoneId normalized = zone.normalized();
+        if (normalized instanceof ZoneOffset) {
+            return ZoneOffset.UTC.equals(normalized) ? "UTC" : normalized.getId();
         }
-        
-        // Recalculate total amount
-        if (expense.getExpquantity() != null && expense.getExpprice() != null) {
-            expense.setExptotalAmount(expense.getExpquantity() * expense.getExpprice());
+        return normalized.getId();
+    }
+
+    private String dateFormat(String groupBy) {
+        switch (groupBy) {
+            case "day":
+                return "%Y-%m-%d";
+            case "month":
+                return "%Y-%m";
+            case "year":
+                return "%Y";
+            default:
+                throw new IllegalArgumentException("Invalid groupBy: " + groupBy);
         }
-        
-        expense.setUpdatedAt(new Date());
-        return expenseRepository.save(expense);
     }
 
-    public void deleteExpense(String id, String userId) {
-        expenseRepository.deleteByIdAndUserId(id, userId);
+    private String encodeCursor(Expense expense) {
+        Date expexpenseDate = expense.getExpexpenseDate();
+        String position = (expexpenseDate == null ? UNDATED_CURSOR : Long.toString(expexpenseDate.getTime()))
+            + ":" + expense.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = position.split(":", 2);
+        if (parts.length != 2 || !ObjectId.isValid(parts[1])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
     }
 }
@@ -0,0 +1,155 @@
+package com.expense.backend.service;
+
+import com.expense.backend.util.LatencyHistogram;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// In-process metrics registry, exported in the Prometheus text format by MetricsController.
+// Labels are passed as name/value pairs: histogram("x_seconds", "method", "GET").
+// Series are keyed by the raw label values, label text is only built at scrape time. Hot paths with
+// fixed labels should still hold on to the handle from histogram() or counter().
+@Service
+public class MetricsService {
+
+    private final Map<String, Family<LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Family<LongAdder>> counters = new ConcurrentHashMap<>();
+    private final Map<String, Family<Supplier<? extends Number>>> sampledCounters = new ConcurrentHashMap<>();
+    private final Map<String, Family<Supplier<? extends Number>>> gauges = new ConcurrentHashMap<>();
+
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return histograms.computeIfAbsent(name, key -> new Family<>(help)).get(labels, LatencyHistogram::new);
+    }
+
+    public void recordNanos(String name, String help, long nanos, String... labels) {
+        histogram(name, help, labels).record(nanos);
+    }
+
+    public LongAdder counter(String name, String help, String... labels) {
+        return counters.computeIfAbsent(name, key -> new Family<>(help)).get(labels, LongAdder::new);
+    }
+
+    public void increment(String name, String help, String... labels) {
+        counter(name, help, labels).increment();
+    }
+
+    // Sampled at scrape time, for monotonic totals another component already tracks
+    public void counter(String name, String help, Supplier<? extends Number> value, String... labels) {
+        sampledCounters.computeIfAbsent(name, key -> new Family<>(help)).series.put(labelKey(labels), value);
+    }
+
+    // Sampled at scrape time, for values another component already tracks
+    public void gauge(String name, String help, Supplier<? extends Number> value, String... labels) {
+        gauges.computeIfAbsent(name, key -> new Family<>(help)).series.put(labelKey(labels), value);
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(16384);
+        new TreeMap<>(counters).forEach((name, family) -> {
+            header(out, name, family.help, "counter");
+            family.sorted().forEach((labels, value) -> sample(out, name, labels, value.sum()));
+        });
+        new TreeMap<>(sampledCounters).forEach((name, family) -> {
+            header(out, name, family.help, "counter");
+            family.sorted().forEach((labels, value) -> sample(out, name, labels, value.get().doubleValue()));
+        });
+        new TreeMap<>(gauges).forEach((name, family) -> {
+            header(out, name, family.help, "gauge");
+            family.sorted().forEach((labels, value) -> sample(out, name, labels, value.get().doubleValue()));
+        });
+        new TreeMap<>(histograms).forEach((name, family) -> {
+            header(out, name, family.help, "histogram");
+            family.sorted().forEach((labels, histogram) -> {
+                long[] cumulative = histogram.cumulativeCounts();
+                for (int i = 0; i < LatencyHistogram.BUCKETS.length; i++) {
+                    sample(out, name + "_bucket", withLabel(labels, "le", formatNumber(LatencyHistogram.BUCKETS[i])),
+                        cumulative[i]);
+                }
+                long count = cumulative[cumulative.length - 1];
+                sample(out, name + "_bucket", withLabel(labels, "le", "+Inf"), count);
+                sample(out, name + "_sum", labels, histogram.sumSeconds());
+                sample(out, name + "_count", labels, count);
+            });
+        });
+        return out.toString();
+    }
+
+    private void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(formatNumber(value)).append('\n');
+    }
+
+    private String withLabel(String labels, String name, String value) {
+        String label = name + "=\"" + value + "\"";
+        return labels.isEmpty() ? label : labels + "," + label;
+    }
+
+    private static List<String> labelKey(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        return Collections.unmodifiableList(Arrays.asList(labels.clone()));
+    }
+
+    private static String labelString(List<String> labels) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < labels.size(); i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels.get(i)).append("=\"").append(escape(labels.get(i + 1))).append('"');
+        }
+        return out.toString();
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private String formatNumber(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%s", value);
+    }
+
+    private static class Family<T> {
+        private final String help;
+        private final Map<List<String>, T> series = new ConcurrentHashMap<>();
+
+        private Family(String help) {
+            this.help = help;
+        }
+
+        // The lookup wraps the caller's array, a copy is only taken when a new series is added
+        private T get(String[] labels, Supplier<T> factory) {
+            T value = series.get(Arrays.asList(labels));
+            return value != null ? value : series.computeIfAbsent(labelKey(labels), key -> factory.get());
+        }
+
+        private Map<String, T> sorted() {
+            Map<String, T> sorted = new TreeMap<>();
+            series.forEach((labels, value) -> sorted.put(labelString(labels), value));
+            return sorted;
+        }
+    }
+}
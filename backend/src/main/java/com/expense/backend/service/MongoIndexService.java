@@ -0,0 +1,126 @@
+package com.expense.backend.service;
+
+import com.expense.backend.model.BlacklistedToken;
+import com.expense.backend.model.Expense;
+import com.expense.backend.model.ExpenseRollup;
+import com.expense.backend.model.User;
+import com.mongodb.ExplainVerbosity;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class MongoIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexService.class);
+
+    private static final List<Class<?>> INDEXED_TYPES = List.of(Expense.class, ExpenseRollup.class, User.class, BlacklistedToken.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Create the annotated indexes even when spring.data.mongodb.auto-index-creation is off
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        INDEXED_TYPES.forEach(this::ensureIndexes);
+
+        // Report anything that could not be created so slow collection scans are not a surprise
+        getIndexReport().forEach((collection, indexes) -> indexes.forEach((name, present) -> {
+            if (!present) {
+                logger.warn("Missing index {} on collection {}", name, collection);
+            }
+        }));
+    }
+
+    // Expected index name -> whether it exists, per collection
+    public Map<String, Map<String, Boolean>> getIndexReport() {
+        Map<String, Map<String, Boolean>> report = new LinkedHashMap<>();
+        for (Class<?> type : INDEXED_TYPES) {
+            Set<String> existing = mongoTemplate.indexOps(type).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+            Map<String, Boolean> indexes = new LinkedHashMap<>();
+            for (IndexDefinition index : resolveIndexes(type)) {
+                String name = indexName(index);
+                indexes.put(name, existing.contains(name));
+            }
+            report.put(mongoTemplate.getCollectionName(type), indexes);
+        }
+        return report;
+    }
+
+    // Explain the per-user expense query the read endpoints run, optionally narrowed by purpose
+    public Map<String, Object> explainExpenseQuery(String userId, String exppurpose) {
+        Document filter = new Document("userId", userId);
+        Document sort = new Document("expexpenseDate", -1).append("_id", -1);
+        if (exppurpose != null && !exppurpose.isEmpty()) {
+            filter.append("exppurpose", exppurpose);
+            sort = new Document("exppurpose", 1);
+        }
+
+        Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Expense.class))
+            .find(filter)
+            .sort(sort)
+            .explain(ExplainVerbosity.EXECUTION_STATS);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        if (queryPlanner != null) {
+            result.put("winningPlan", queryPlanner.get("winningPlan"));
+        }
+        Document executionStats = explain.get("executionStats", Document.class);
+        if (executionStats != null) {
+            result.put("nReturned", executionStats.get("nReturned"));
+            result.put("totalKeysExamined", executionStats.get("totalKeysExamined"));
+            result.put("totalDocsExamined", executionStats.get("totalDocsExamined"));
+            result.put("executionTimeMillis", executionStats.get("executionTimeMillis"));
+        }
+        return result;
+    }
+
+    private void ensureIndexes(Class<?> type) {
+        IndexOperations indexOps = mongoTemplate.indexOps(type);
+        resolveIndexes(type).forEach(index -> {
+            try {
+                indexOps.ensureIndex(index);
+            } catch (Exception e) {
+                logger.error("Failed to create index {} on {}", index.getIndexKeys(), type.getSimpleName(), e);
+            }
+        });
+    }
+
+    private List<IndexDefinition> resolveIndexes(Class<?> type) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        List<IndexDefinition> indexes = new ArrayList<>();
+        resolver.resolveIndexFor(type).forEach(indexes::add);
+        return indexes;
+    }
+
+    // Falls back to MongoDB's default key_direction naming when no explicit name is set
+    private String indexName(IndexDefinition index) {
+        Object name = index.getIndexOptions().get("name");
+        if (name != null) {
+            return name.toString();
+        }
+        return index.getIndexKeys().entrySet().stream()
+            .map(key -> key.getKey() + "_" + key.getValue())
+            .collect(Collectors.joining("_"));
+    }
+}
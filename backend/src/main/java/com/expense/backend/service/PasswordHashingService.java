@@ -0,0 +1,198 @@
+package com.expense.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// BCrypt runs on its own bounded pool so a burst of logins cannot take every request thread's CPU.
+// Admission is the queue bound: a full queue fails fast with RejectedExecutionException, controllers answer 503.
+// A running hash cannot be interrupted, so an admitted one is never cancelled, only waited for.
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${security.bcrypt.pool-size:0}")
+    private int poolSize;
+
+    @Value("${security.bcrypt.queue-capacity:64}")
+    private int queueCapacity;
+
+    // 0 derives the wait from the measured hash time at the configured cost and the queue length
+    @Value("${security.bcrypt.timeout-ms:0}")
+    private long configuredTimeoutMs;
+
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final HashTimer encodeTimer = new HashTimer("encode");
+    private final HashTimer matchesTimer = new HashTimer("matches");
+
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        timeoutMs = configuredTimeoutMs > 0 ? configuredTimeoutMs : worstCaseWaitMillis(threads);
+        logger.info("BCrypt pool: {} threads, queue {}, wait limit {} ms", threads, queueCapacity, timeoutMs);
+
+        metricsService.gauge("bcrypt_queue_depth", "Hashes waiting for a BCrypt thread", () -> executor.getQueue().size());
+        metricsService.gauge("bcrypt_active_threads", "BCrypt threads currently hashing", executor::getActiveCount);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(() -> encodeTimer.time(() -> passwordEncoder.encode(rawPassword))));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> matchesTimer.time(() -> passwordEncoder.matches(rawPassword, encodedPassword))));
+    }
+
+    // True when the stored hash was made with a lower cost than security.bcrypt.strength
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    // Completes on a BCrypt thread, so dependent stages that do I/O must run on their own executor.
+    // Completes with RejectedExecutionException right away when the queue is full.
+    public CompletableFuture<String> encodeInBackground(String rawPassword) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        try {
+            submit(() -> {
+                try {
+                    result.complete(encodeTimer.time(() -> passwordEncoder.encode(rawPassword)));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("timeoutMs", timeoutMs);
+        stats.put("completedTasks", executor.getCompletedTaskCount());
+        stats.put("rejected", rejected.get());
+        stats.put("timedOut", timedOut.get());
+        stats.put("encode", encodeTimer.snapshot());
+        stats.put("matches", matchesTimer.snapshot());
+        return stats;
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            metricsService.increment("bcrypt_rejected_total", "Hashes rejected because the BCrypt queue was full");
+            throw e;
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Only reached when the CPU is oversubscribed, the hash still finishes and its result is dropped
+            timedOut.incrementAndGet();
+            throw new RejectedExecutionException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            logger.error("Password hashing failed", e.getCause());
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // A full queue ahead of this hash plus the hash itself, with headroom for a busy CPU
+    private long worstCaseWaitMillis(int threads) {
+        long start = System.nanoTime();
+        passwordEncoder.encode("calibration");
+        long hashMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        long rounds = (queueCapacity + threads - 1) / threads + 1;
+        return Math.max(1000, hashMillis * rounds * 2);
+    }
+
+    private class HashTimer {
+        private final String operation;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private HashTimer(String operation) {
+            this.operation = operation;
+        }
+
+        private <T> T time(Callable<T> hash) throws Exception {
+            long start = System.nanoTime();
+            try {
+                return hash.call();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                count.incrementAndGet();
+                totalNanos.addAndGet(elapsed);
+                maxNanos.accumulateAndGet(elapsed, Math::max);
+                metricsService.recordNanos("bcrypt_seconds", "BCrypt hash time", elapsed, "operation", operation);
+            }
+        }
+
+        private Map<String, Object> snapshot() {
+            long calls = count.get();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("count", calls);
+            snapshot.put("avgMillis", calls == 0 ? 0 : totalNanos.get() / calls / 1_000_000.0);
+            snapshot.put("maxMillis", maxNanos.get() / 1_000_000.0);
+            return snapshot;
+        }
+    }
+}
@@ -2,44 +2,225 @@ package com.expense.backend.service;
 
 import com.expense.backend.model.BlacklistedToken;
 import com.expense.backend.repository.BlacklistedTokenRepository;
+import com.expense.backend.util.BloomFilter;
+import com.expense.backend.util.ExpiringCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 @Service
 public class TokenBlacklistService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistService.class);
+
+    // Overlap between filter syncs so tokens blacklisted on nodes with skewed clocks are not missed
+    private static final long SYNC_OVERLAP_MS = 60000;
+
     @Autowired
     private BlacklistedTokenRepository blacklistedTokenRepository;
 
+    @Value("${blacklist.cache.max-size:100000}")
+    private int cacheMaxSize;
+
+    @Value("${blacklist.filter.expected-insertions:1000000}")
+    private long filterExpectedInsertions;
+
+    @Value("${blacklist.filter.false-positive-rate:0.001}")
+    private double filterFalsePositiveRate;
+
+    // Confirmed revocations, so repeated use of a revoked token does not hit the database
+    private ExpiringCache<String, Boolean> revokedTokens;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    // Covers every non-expired blacklisted token across all nodes; null until first built
+    private volatile BloomFilter revokedTokenFilter;
+
+    private volatile Date lastSync;
+
+    private volatile Date lastRebuild;
+
+    private final ReentrantLock filterLock = new ReentrantLock();
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong filterMisses = new AtomicLong();
+    private final AtomicLong filterPossibleHits = new AtomicLong();
+    private final AtomicLong filterFalsePositives = new AtomicLong();
+    private final AtomicLong databaseLookups = new AtomicLong();
+    private final AtomicLong lastCleanupRemoved = new AtomicLong();
+    private final AtomicLong totalCleanupRemoved = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        revokedTokens = new ExpiringCache<>(cacheMaxSize);
+        metricsService.counter("cache_evictions_total", "Live entries dropped from full in-memory caches",
+            revokedTokens::getEvictions, "cache", "revoked_tokens");
+
+        String help = "Blacklist checks by the layer that answered them";
+        metricsService.counter("token_blacklist_lookups_total", help, cacheHits::get, "result", "cache_hit");
+        metricsService.counter("token_blacklist_lookups_total", help, filterMisses::get, "result", "filter_miss");
+        metricsService.counter("token_blacklist_lookups_total", help, filterFalsePositives::get, "result", "filter_false_positive");
+        metricsService.counter("token_blacklist_lookups_total", help, databaseLookups::get, "result", "database");
+        metricsService.gauge("token_blacklist_cache_size", "Confirmed revocations held in memory", () -> revokedTokens.size());
+    }
+
+    // Build the revocation filter from the blacklisted_tokens collection at startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmFilter() {
+        try {
+            rebuildFilter();
+        } catch (Exception e) {
+            logger.error("Failed to build token blacklist filter", e);
+        }
+    }
+
     public void blacklistToken(String token, String userId, Date expirationDate) {
         // Check if token is already blacklisted
         if (!blacklistedTokenRepository.existsByToken(token)) {
             BlacklistedToken blacklistedToken = new BlacklistedToken(token, userId, expirationDate);
             blacklistedTokenRepository.save(blacklistedToken);
         }
+        BloomFilter filter = revokedTokenFilter;
+        if (filter != null) {
+            filter.put(token);
+        }
+        cacheToken(token, expirationDate);
     }
 
     public boolean isTokenBlacklisted(String token) {
+        if (revokedTokens.get(token) != null) {
+            cacheHits.incrementAndGet();
+            return true;
+        }
+
+        BloomFilter filter = revokedTokenFilter;
+        if (filter != null) {
+            if (!filter.mightContain(token)) {
+                // Definitely not revoked, answered without a database lookup
+                filterMisses.incrementAndGet();
+                return false;
+            }
+            filterPossibleHits.incrementAndGet();
+        }
+
+        databaseLookups.incrementAndGet();
         Optional<BlacklistedToken> blacklistedToken = blacklistedTokenRepository.findByToken(token);
         if (blacklistedToken.isPresent()) {
             // Token is blacklisted
+            cacheToken(token, blacklistedToken.get().getExpirationDate());
             return true;
         }
+        if (filter != null) {
+            filterFalsePositives.incrementAndGet();
+        }
         return false;
     }
 
+    // Pick up tokens blacklisted by other nodes since the last sync
+    @Scheduled(fixedDelayString = "${blacklist.filter.sync-interval-ms:5000}")
+    public void syncFilter() {
+        BloomFilter filter = revokedTokenFilter;
+        if (filter == null || !filterLock.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Date syncFrom = new Date(System.currentTimeMillis() - SYNC_OVERLAP_MS);
+            try (Stream<BlacklistedToken> tokens = blacklistedTokenRepository.findByBlacklistedAtAfter(lastSync)) {
+                tokens.forEach(token -> filter.put(token.getToken()));
+            }
+            lastSync = syncFrom;
+        } catch (Exception e) {
+            logger.error("Failed to sync token blacklist filter", e);
+        } finally {
+            filterLock.unlock();
+            metricsService.recordNanos("scheduled_job_seconds", "Scheduled job run time", System.nanoTime() - start,
+                "job", "blacklistFilterSync");
+        }
+    }
+
     // Clean up expired tokens periodically (runs every hour)
     @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
     public void cleanupExpiredTokens() {
-        Date now = new Date();
-        blacklistedTokenRepository.findAll().forEach(token -> {
-            if (token.getExpirationDate().before(now)) {
-                blacklistedTokenRepository.delete(token);
+        // The TTL index normally removes expired tokens, this ranged delete catches anything it has not reached yet
+        long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        try {
+            long removed = blacklistedTokenRepository.deleteByExpirationDateBefore(new Date(start));
+            lastCleanupRemoved.set(removed);
+            totalCleanupRemoved.addAndGet(removed);
+            logger.info("Removed {} expired blacklisted tokens in {} ms", removed, System.currentTimeMillis() - start);
+            revokedTokens.evictExpired();
+            // Bloom filters cannot forget entries, so rebuild without the expired tokens
+            rebuildFilter();
+        } finally {
+            metricsService.recordNanos("scheduled_job_seconds", "Scheduled job run time", System.nanoTime() - startNanos,
+                "job", "blacklistCleanup");
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        BloomFilter filter = revokedTokenFilter;
+        stats.put("filterReady", filter != null);
+        if (filter != null) {
+            stats.put("filterBits", filter.getBitSize());
+            stats.put("filterMemoryBytes", filter.getMemoryBytes());
+            stats.put("filterHashFunctions", filter.getHashFunctions());
+            stats.put("filterExpectedInsertions", filter.getExpectedInsertions());
+            stats.put("filterInsertions", filter.getInsertions());
+        }
+        stats.put("filterFalsePositiveRate", filterFalsePositiveRate);
+        stats.put("filterMisses", filterMisses.get());
+        stats.put("filterPossibleHits", filterPossibleHits.get());
+        stats.put("filterFalsePositives", filterFalsePositives.get());
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("cacheSize", revokedTokens.size());
+        stats.put("databaseLookups", databaseLookups.get());
+        stats.put("lastRebuild", lastRebuild);
+        stats.put("lastSync", lastSync);
+        stats.put("lastCleanupRemoved", lastCleanupRemoved.get());
+        stats.put("totalCleanupRemoved", totalCleanupRemoved.get());
+        return stats;
+    }
+
+    private void rebuildFilter() {
+        filterLock.lock();
+        try {
+            Date now = new Date();
+            Date syncFrom = new Date(now.getTime() - SYNC_OVERLAP_MS);
+            long liveTokens = blacklistedTokenRepository.countByExpirationDateAfter(now);
+            BloomFilter filter = new BloomFilter(Math.max(filterExpectedInsertions, liveTokens * 2), filterFalsePositiveRate);
+            try (Stream<BlacklistedToken> tokens = blacklistedTokenRepository.findByExpirationDateAfter(now)) {
+                tokens.forEach(token -> filter.put(token.getToken()));
             }
-        });
+            revokedTokenFilter = filter;
+            lastSync = syncFrom;
+            lastRebuild = now;
+            logger.info("Token blacklist filter rebuilt with {} entries ({} bytes)", filter.getInsertions(), filter.getMemoryBytes());
+        } finally {
+            filterLock.unlock();
+        }
+    }
+
+    private void cacheToken(String token, Date expirationDate) {
+        if (expirationDate != null) {
+            revokedTokens.put(token, Boolean.TRUE, expirationDate.getTime());
+        }
     }
 }
@@ -2,27 +2,70 @@ package com.expense.backend.service;
 
 import com.expense.backend.model.User;
 import com.expense.backend.repository.UserRepository;
+import com.expense.backend.util.ExpiringCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    // Boot's bounded application executor, keeps MongoDB writes off the CPU-sized BCrypt pool
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${user.cache.ttl-ms:30000}")
+    private long userCacheTtlMs;
+
+    @Value("${user.cache.max-size:10000}")
+    private int userCacheMaxSize;
+
+    // Short-lived userId -> useremail lookups used to authenticate each request
+    private ExpiringCache<String, String> useremailCache;
+
+    @PostConstruct
+    public void init() {
+        useremailCache = new ExpiringCache<>(userCacheMaxSize);
+        metricsService.counter("cache_evictions_total", "Live entries dropped from full in-memory caches",
+            useremailCache::getEvictions, "cache", "useremail");
+    }
 
     public User createUser(String username, String useremail, String userpassword, String userprofileImage) {
         User user = new User();
         user.setUsername(username);
         user.setUseremail(useremail);
-        user.setUserpassword(passwordEncoder.encode(userpassword));
+        user.setUserpassword(passwordHashingService.encode(userpassword));
         if (userprofileImage != null && !userprofileImage.isEmpty()) {
             user.setUserprofileImage(userprofileImage);
         }
@@ -43,6 +86,46 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    public String findCachedUseremailById(String id) {
+        if (id == null) {
+            return null;
+        }
+        String useremail = useremailCache.get(id);
+        if (useremail == null) {
+            Optional<User> user = userRepository.findById(id);
+            if (user.isEmpty()) {
+                return null;
+            }
+            useremail = user.get().getUseremail();
+            useremailCache.put(id, useremail, System.currentTimeMillis() + userCacheTtlMs);
+        }
+        return useremail;
+    }
+
+    public boolean passwordMatches(User user, String userpassword) {
+        return passwordHashingService.matches(userpassword, user.getUserpassword());
+    }
+
+    // Re-encodes at the configured cost in the background, only if the password was not changed meanwhile
+    public void rehashPasswordIfNeeded(User user, String userpassword) {
+        String currentHash = user.getUserpassword();
+        if (!passwordHashingService.needsRehash(currentHash)) {
+            return;
+        }
+        passwordHashingService.encodeInBackground(userpassword)
+            .thenAcceptAsync(newHash -> mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(user.getId()).and("userpassword").is(currentHash)),
+                new Update().set("userpassword", newHash),
+                User.class), applicationTaskExecutor)
+            .exceptionally(e -> {
+                // A full BCrypt queue is expected under load, the next signin tries again
+                if (!(e.getCause() instanceof RejectedExecutionException)) {
+                    logger.error("Failed to rehash password for user {}", user.getId(), e);
+                }
+                return null;
+            });
+    }
+
     public User updateUser(User user, String username, String useremail, String userpassword, String userprofileImage) {
         if (username != null && !username.isEmpty()) {
             user.setUsername(username);
@@ -51,12 +134,15 @@ public class UserService {
             user.setUseremail(useremail);
         }
         if (userpassword != null && !userpassword.isEmpty()) {
-            user.setUserpassword(passwordEncoder.encode(userpassword));
+            user.setUserpassword(passwordHashingService.encode(userpassword));
         }
         if (userprofileImage != null) {
             user.setUserprofileImage(userprofileImage);
         }
         user.setUserupdatedAt(new Date());
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        useremailCache.remove(savedUser.getId());
+        dataVersionService.bumpProfile(savedUser.getId());
+        return savedUser;
     }
 }
@@ -0,0 +1,111 @@
+package com.expense.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Watches JFR for virtual threads that stay pinned to their carrier, e.g. blocking inside synchronized.
+// Active with spring.threads.virtual.enabled on Java 21+, where Boot itself moves the Tomcat workers,
+// the @Scheduled jobs and MVC async processing onto virtual threads.
+@Service
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_RECENT_EVENTS = 20;
+    private static final int MAX_FRAMES = 8;
+
+    @Value("${expense.virtual-threads.pinning-threshold-ms:20}")
+    private long pinningThresholdMs;
+
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final AtomicLong pinnedNanos = new AtomicLong();
+    private final Deque<Map<String, Object>> recentEvents = new ArrayDeque<>();
+
+    private volatile RecordingStream recordingStream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            recordingStream = new RecordingStream();
+            recordingStream.enable(PINNED_EVENT)
+                .withThreshold(Duration.ofMillis(pinningThresholdMs))
+                .withStackTrace();
+            recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+            recordingStream.startAsync();
+            logger.info("Virtual thread pinning monitor started, threshold {} ms", pinningThresholdMs);
+        } catch (Exception e) {
+            logger.error("Failed to start virtual thread pinning monitor", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", recordingStream != null);
+        stats.put("thresholdMs", pinningThresholdMs);
+        stats.put("pinnedEvents", pinnedEvents.get());
+        stats.put("pinnedMillis", pinnedNanos.get() / 1_000_000);
+        synchronized (recentEvents) {
+            stats.put("recentEvents", new ArrayList<>(recentEvents));
+        }
+        return stats;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        pinnedNanos.addAndGet(event.getDuration().toNanos());
+
+        List<String> frames = new ArrayList<>();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace != null) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                if (frames.size() == MAX_FRAMES) {
+                    break;
+                }
+                frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                    + ":" + frame.getLineNumber());
+            }
+        }
+
+        Map<String, Object> pinned = new LinkedHashMap<>();
+        pinned.put("at", event.getStartTime().toString());
+        pinned.put("durationMs", event.getDuration().toMillis());
+        pinned.put("thread", event.getThread() == null ? null : event.getThread().getJavaName());
+        pinned.put("stackTrace", frames);
+        synchronized (recentEvents) {
+            if (recentEvents.size() == MAX_RECENT_EVENTS) {
+                recentEvents.removeFirst();
+            }
+            recentEvents.addLast(pinned);
+        }
+        logger.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), frames);
+    }
+}
@@ -0,0 +1,47 @@
+package com.expense.backend.util;
+
+import java.util.Locale;
+
+// Reads an Accept-Encoding header by coding name and q-value, so "gzip;q=0" is a refusal
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    // An explicit gzip entry decides, otherwise "*" does. Malformed q-values count as 0.
+    public static boolean allowsGzip(String header) {
+        if (header == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String entry : header.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if ("gzip".equals(coding)) {
+                gzip = quality(parts);
+            } else if ("*".equals(coding)) {
+                wildcard = quality(parts);
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 1 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,85 @@
+package com.expense.backend.util;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Line reader that never holds more than maxLineLength characters of one line. The rest of a longer
+// line is skipped and isOversized() reports it, so a single huge line cannot exhaust the heap.
+public class BoundedLineReader {
+
+    private final Reader reader;
+    private final int maxLineLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean oversized;
+
+    public BoundedLineReader(Reader reader, int maxLineLength) {
+        this.reader = reader;
+        this.maxLineLength = maxLineLength;
+    }
+
+    // Next line without its \n or \r\n, null at the end of the input.
+    // An oversized line comes back empty.
+    public String readLine() throws IOException {
+        oversized = false;
+        if (!fill()) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        while (fill()) {
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            append(line, start, position);
+            if (position < limit) {
+                position++;
+                break;
+            }
+        }
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(--length);
+        }
+        if (length > maxLineLength) {
+            oversized = true;
+        }
+        return oversized ? "" : line.toString();
+    }
+
+    // Whether the line last returned by readLine was longer than the limit
+    public boolean isOversized() {
+        return oversized;
+    }
+
+    // One character more than the limit is kept so a trailing \r does not count against it
+    private void append(StringBuilder line, int start, int end) {
+        if (oversized) {
+            return;
+        }
+        int room = maxLineLength + 1 - line.length();
+        if (end - start > room) {
+            oversized = true;
+            line.setLength(0);
+            return;
+        }
+        line.append(buffer, start, end - start);
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+package com.expense.backend.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// RFC 4180 style records, quoted fields may contain commas, doubled quotes and line breaks.
+// A record longer than maxRecordLength characters is consumed to its end without being kept,
+// isOversized() reports it and reading resumes with the next record.
+public class CsvRecordReader {
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean oversized;
+
+    public CsvRecordReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    // Fields of the next record, null at the end of the input. An oversized record comes back empty.
+    public List<String> readRecord() throws IOException {
+        oversized = false;
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        long length = 0;
+        while (c >= 0 && (quoted || c != '\n')) {
+            // Every character counts, a run of commas must not grow the field list without limit
+            if (++length > maxRecordLength && !oversized) {
+                oversized = true;
+                fields.clear();
+                field.setLength(0);
+            }
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        length++;
+                        append(field, '"');
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '\r') {
+                    // Line breaks inside quotes are kept as \n
+                    if (peek() == '\n') {
+                        read();
+                    }
+                    append(field, '\n');
+                } else {
+                    append(field, (char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                if (!oversized) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                }
+            } else if (c != '\r') {
+                append(field, (char) c);
+            }
+            c = read();
+        }
+        if (oversized) {
+            fields.clear();
+        } else {
+            fields.add(field.toString());
+        }
+        return fields;
+    }
+
+    // Whether the record last returned by readRecord was longer than the limit
+    public boolean isOversized() {
+        return oversized;
+    }
+
+    private void append(StringBuilder field, char c) {
+        if (!oversized) {
+            field.append(c);
+        }
+    }
+
+    private int read() throws IOException {
+        return fill() ? buffer[position++] : -1;
+    }
+
+    private int peek() throws IOException {
+        return fill() ? buffer[position] : -1;
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
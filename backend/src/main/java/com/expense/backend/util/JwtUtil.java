@@ -1,30 +1,63 @@
 package com.expense.backend.util;
 
+import com.expense.backend.service.MetricsService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    @Autowired
+    private MetricsService metricsService;
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
+    @Value("${jwt.claims-cache.max-size:50000}")
+    private int claimsCacheMaxSize;
+
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    // Verified claims per token, so each token's signature is checked once until it expires
+    private ExpiringCache<String, Claims> claimsCache;
+
+    private LongAdder claimsCacheHits;
+    private LongAdder claimsCacheMisses;
+    private LatencyHistogram verifyTime;
+
+    @PostConstruct
+    public void init() {
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        claimsCache = new ExpiringCache<>(claimsCacheMaxSize);
+        metricsService.counter("cache_evictions_total", "Live entries dropped from full in-memory caches",
+            claimsCache::getEvictions, "cache", "jwt_claims");
+        // Every authenticated request passes here, so the series are resolved once
+        claimsCacheHits = metricsService.counter("jwt_claims_cache_total", "JWT claims cache lookups", "result", "hit");
+        claimsCacheMisses = metricsService.counter("jwt_claims_cache_total", "JWT claims cache lookups", "result", "miss");
+        verifyTime = metricsService.histogram("jwt_verify_seconds", "JWT signature verification and parsing time");
     }
 
     public String extractUsername(String token) {
@@ -45,11 +78,22 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims claims = claimsCache.get(token);
+        if (claims != null) {
+            claimsCacheHits.increment();
+            return claims;
+        }
+        claimsCacheMisses.increment();
+        long start = System.nanoTime();
+        try {
+            claims = jwtParser.parseSignedClaims(token).getPayload();
+        } finally {
+            verifyTime.record(System.nanoTime() - start);
+        }
+        if (claims.getExpiration() != null) {
+            claimsCache.put(token, claims, claims.getExpiration().getTime());
+        }
+        return claims;
     }
 
     private Boolean isTokenExpired(String token) {
@@ -70,7 +114,7 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
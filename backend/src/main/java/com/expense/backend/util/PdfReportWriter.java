@@ -0,0 +1,189 @@
+package com.expense.backend.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Writes a tabular A4 PDF page by page, only the current page is held in memory
+public class PdfReportWriter {
+
+    private static final float PAGE_WIDTH = 595;
+    private static final float PAGE_HEIGHT = 842;
+    private static final float MARGIN = 40;
+    private static final float FONT_SIZE = 9;
+    private static final float ROW_HEIGHT = 14;
+
+    private static final int CATALOG_OBJECT = 1;
+    private static final int PAGES_OBJECT = 2;
+    private static final int FONT_OBJECT = 3;
+    private static final int BOLD_FONT_OBJECT = 4;
+
+    private final OutputStream out;
+    private final String[] columns;
+    private final float[] columnWidths;
+    private final boolean[] rightAligned;
+    private final List<String> headerLines;
+
+    private final Map<Integer, Long> objectOffsets = new HashMap<>();
+    private final List<Integer> pageObjects = new ArrayList<>();
+    private int nextObject = BOLD_FONT_OBJECT + 1;
+    private long position = 0;
+
+    private StringBuilder content;
+    private float cursorY;
+
+    public PdfReportWriter(OutputStream out, List<String> headerLines, String[] columns, float[] columnWidths,
+                           boolean[] rightAligned) throws IOException {
+        this.out = out;
+        this.headerLines = headerLines;
+        this.columns = columns;
+        this.columnWidths = columnWidths;
+        this.rightAligned = rightAligned;
+
+        write("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+        writeObject(FONT_OBJECT, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+        writeObject(BOLD_FONT_OBJECT, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+        startPage();
+    }
+
+    public void addRow(String[] cells) throws IOException {
+        if (cursorY - ROW_HEIGHT < MARGIN) {
+            finishPage();
+            startPage();
+        }
+        drawRow(cells, "F1");
+    }
+
+    // Closing lines go after the table, then the document trailer is written
+    public void finish(List<String> footerLines) throws IOException {
+        if (cursorY - ROW_HEIGHT * (footerLines.size() + 1) < MARGIN) {
+            finishPage();
+            startPage();
+        }
+        cursorY -= ROW_HEIGHT / 2;
+        for (String line : footerLines) {
+            drawText(MARGIN, cursorY, line, "F2", FONT_SIZE + 1);
+            cursorY -= ROW_HEIGHT;
+        }
+        finishPage();
+
+        StringBuilder kids = new StringBuilder();
+        for (int pageObject : pageObjects) {
+            kids.append(pageObject).append(" 0 R ");
+        }
+        writeObject(PAGES_OBJECT, "<< /Type /Pages /Kids [" + kids + "] /Count " + pageObjects.size() + " >>");
+        writeObject(CATALOG_OBJECT, "<< /Type /Catalog /Pages " + PAGES_OBJECT + " 0 R >>");
+
+        long xrefOffset = position;
+        StringBuilder xref = new StringBuilder();
+        xref.append("xref\n0 ").append(nextObject).append("\n0000000000 65535 f \n");
+        for (int i = 1; i < nextObject; i++) {
+            xref.append(String.format(Locale.ROOT, "%010d 00000 n \n", objectOffsets.get(i)));
+        }
+        xref.append("trailer\n<< /Size ").append(nextObject).append(" /Root ").append(CATALOG_OBJECT).append(" 0 R >>\n");
+        xref.append("startxref\n").append(xrefOffset).append("\n%%EOF\n");
+        write(xref.toString());
+        out.flush();
+    }
+
+    public int getPageCount() {
+        return pageObjects.size();
+    }
+
+    private void startPage() {
+        content = new StringBuilder(8192);
+        cursorY = PAGE_HEIGHT - MARGIN;
+        if (pageObjects.isEmpty()) {
+            for (int i = 0; i < headerLines.size(); i++) {
+                drawText(MARGIN, cursorY, headerLines.get(i), i == 0 ? "F2" : "F1", i == 0 ? 16 : FONT_SIZE + 1);
+                cursorY -= i == 0 ? 22 : ROW_HEIGHT;
+            }
+            cursorY -= ROW_HEIGHT / 2;
+        }
+        drawRow(columns, "F2");
+        content.append(String.format(Locale.ROOT, "0.5 w %.2f %.2f m %.2f %.2f l S\n",
+            MARGIN, cursorY + ROW_HEIGHT - 3, PAGE_WIDTH - MARGIN, cursorY + ROW_HEIGHT - 3));
+    }
+
+    private void finishPage() throws IOException {
+        drawText(PAGE_WIDTH / 2 - 20, MARGIN / 2, "Page " + (pageObjects.size() + 1), "F1", FONT_SIZE - 1);
+
+        byte[] stream = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+        int contentObject = nextObject++;
+        int pageObject = nextObject++;
+
+        objectOffsets.put(contentObject, position);
+        write(contentObject + " 0 obj\n<< /Length " + stream.length + " >>\nstream\n");
+        write(stream);
+        write("\nendstream\nendobj\n");
+
+        writeObject(pageObject, "<< /Type /Page /Parent " + PAGES_OBJECT + " 0 R /MediaBox [0 0 "
+            + (int) PAGE_WIDTH + " " + (int) PAGE_HEIGHT + "] /Contents " + contentObject + " 0 R"
+            + " /Resources << /Font << /F1 " + FONT_OBJECT + " 0 R /F2 " + BOLD_FONT_OBJECT + " 0 R >> >> >>");
+        pageObjects.add(pageObject);
+        content = null;
+    }
+
+    private void drawRow(String[] cells, String font) {
+        float x = MARGIN;
+        for (int i = 0; i < columnWidths.length; i++) {
+            String text = fit(i < cells.length && cells[i] != null ? cells[i] : "", columnWidths[i] - 6);
+            float textX = rightAligned[i] ? x + columnWidths[i] - 6 - approximateWidth(text) : x;
+            drawText(textX, cursorY, text, font, FONT_SIZE);
+            x += columnWidths[i];
+        }
+        cursorY -= ROW_HEIGHT;
+    }
+
+    private void drawText(float x, float y, String text, String font, float size) {
+        content.append("BT /").append(font).append(' ').append(size).append(" Tf ")
+            .append(String.format(Locale.ROOT, "%.2f %.2f", x, y)).append(" Td (").append(escape(text)).append(") Tj ET\n");
+    }
+
+    // Helvetica averages about half an em per character
+    private float approximateWidth(String text) {
+        return text.length() * FONT_SIZE * 0.5f;
+    }
+
+    private String fit(String text, float width) {
+        int maxChars = (int) (width / (FONT_SIZE * 0.5f));
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        return text.substring(0, Math.max(0, maxChars - 3)) + "...";
+    }
+
+    private String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '(' || c == ')' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 32 || c > 255) {
+                // Outside the standard fonts' WinAnsi range
+                escaped.append('?');
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private void writeObject(int number, String body) throws IOException {
+        objectOffsets.put(number, position);
+        write(number + " 0 obj\n" + body + "\nendobj\n");
+    }
+
+    private void write(String text) throws IOException {
+        write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+}
@@ -0,0 +1,78 @@
+package com.expense.backend.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Lower case word prefixes for search-as-you-type. Each expense stores the prefixes of its words,
+// so a typed term matches with an indexed equality instead of an unanchored regex.
+public final class SearchTerms {
+
+    public static final int MIN_PREFIX_LENGTH = 2;
+    public static final int MAX_PREFIX_LENGTH = 16;
+
+    // Keeps long descriptions from blowing up the multikey index
+    private static final int MAX_WORDS = 64;
+
+    private static final int MAX_QUERY_TERMS = 8;
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTerms() {
+    }
+
+    public static List<String> prefixes(String... fields) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        int words = 0;
+        for (String field : fields) {
+            for (String word : words(field)) {
+                if (++words > MAX_WORDS) {
+                    return new ArrayList<>(prefixes);
+                }
+                int longest = Math.min(word.length(), MAX_PREFIX_LENGTH);
+                for (int length = MIN_PREFIX_LENGTH; length <= longest; length++) {
+                    prefixes.add(word.substring(0, length));
+                }
+            }
+        }
+        return new ArrayList<>(prefixes);
+    }
+
+    // Query terms in stored prefix form: longer words are cut to MAX_PREFIX_LENGTH, single characters are dropped
+    public static List<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : words(query)) {
+            if (word.length() >= MIN_PREFIX_LENGTH && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(word.length() > MAX_PREFIX_LENGTH ? word.substring(0, MAX_PREFIX_LENGTH) : word);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    // Whole words for $text, which stems them itself and would never match a cut one
+    public static List<String> textTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : words(query)) {
+            if (word.length() >= MIN_PREFIX_LENGTH && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(word);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
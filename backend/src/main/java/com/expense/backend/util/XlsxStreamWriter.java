@@ -0,0 +1,154 @@
+package com.expense.backend.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Writes a single sheet XLSX workbook row by row, the sheet XML goes straight into the zip entry
+public class XlsxStreamWriter {
+
+    // Excel serial day 0 is 1899-12-30
+    private static final long EXCEL_EPOCH_DAY = LocalDate.of(1899, 12, 30).toEpochDay();
+
+    private static final int HEADER_STYLE = 1;
+    private static final int DATE_STYLE = 2;
+    private static final int NUMBER_STYLE = 3;
+
+    private final ZipOutputStream zip;
+    private final StringBuilder row = new StringBuilder(1024);
+    private int rowNumber = 0;
+
+    public XlsxStreamWriter(OutputStream out, String sheetName, String[] columns) throws IOException {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+
+        writeEntry("[Content_Types].xml",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+            + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+            + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+            + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+            + "</Types>");
+        writeEntry("_rels/.rels",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+            + "</Relationships>");
+        writeEntry("xl/workbook.xml",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+            + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+            + "<sheets><sheet name=\"" + escape(sheetName) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+            + "</workbook>");
+        writeEntry("xl/_rels/workbook.xml.rels",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+            + "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"
+            + "</Relationships>");
+        // Style 1 bold header, 2 yyyy-mm-dd date, 3 two decimal number
+        writeEntry("xl/styles.xml",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+            + "<numFmts count=\"1\"><numFmt numFmtId=\"164\" formatCode=\"yyyy-mm-dd\"/></numFmts>"
+            + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+            + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+            + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>"
+            + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+            + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+            + "<cellXfs count=\"4\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+            + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>"
+            + "<xf numFmtId=\"164\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+            + "<xf numFmtId=\"2\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/></cellXfs>"
+            + "</styleSheet>");
+
+        // The sheet entry stays open until finish()
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+        Object[] header = new Object[columns.length];
+        System.arraycopy(columns, 0, header, 0, columns.length);
+        writeRow(header, HEADER_STYLE);
+    }
+
+    // Cells may be String, Number, LocalDate or null
+    public void addRow(Object[] cells) throws IOException {
+        writeRow(cells, 0);
+    }
+
+    public void finish() throws IOException {
+        write("</sheetData></worksheet>");
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
+    private void writeRow(Object[] cells, int textStyle) throws IOException {
+        rowNumber++;
+        row.setLength(0);
+        row.append("<row r=\"").append(rowNumber).append("\">");
+        for (int i = 0; i < cells.length; i++) {
+            Object cell = cells[i];
+            if (cell == null) {
+                continue;
+            }
+            String ref = columnName(i) + rowNumber;
+            if (cell instanceof Number) {
+                row.append("<c r=\"").append(ref).append("\" s=\"").append(NUMBER_STYLE).append("\"><v>")
+                    .append(((Number) cell).doubleValue()).append("</v></c>");
+            } else if (cell instanceof LocalDate) {
+                row.append("<c r=\"").append(ref).append("\" s=\"").append(DATE_STYLE).append("\"><v>")
+                    .append(((LocalDate) cell).toEpochDay() - EXCEL_EPOCH_DAY).append("</v></c>");
+            } else {
+                row.append("<c r=\"").append(ref).append("\" t=\"inlineStr\"");
+                if (textStyle != 0) {
+                    row.append(" s=\"").append(textStyle).append('"');
+                }
+                row.append("><is><t>").append(escape(cell.toString())).append("</t></is></c>");
+            }
+        }
+        row.append("</row>");
+        write(row.toString());
+    }
+
+    private String columnName(int index) {
+        StringBuilder name = new StringBuilder();
+        for (int i = index + 1; i > 0; i = (i - 1) / 26) {
+            name.insert(0, (char) ('A' + (i - 1) % 26));
+        }
+        return name.toString();
+    }
+
+    // XML 1.0 cannot carry most control characters, they are dropped
+    private String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '<') {
+                escaped.append("&lt;");
+            } else if (c == '>') {
+                escaped.append("&gt;");
+            } else if (c == '&') {
+                escaped.append("&amp;");
+            } else if (c == '"') {
+                escaped.append("&quot;");
+            } else if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        write(content);
+        zip.closeEntry();
+    }
+
+    private void write(String text) throws IOException {
+        zip.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package com.expense.backend.service;
+
+import com.expense.backend.model.ExpenseRollup;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpenseRollupServiceTest {
+
+    private static final String ID = "u1:day:2024-05-01";
+
+    @Test
+    void correctionIncrementsByTheDifference() {
+        Date runStart = new Date();
+        Update update = ExpenseRollupService.correction(rollup(12.5, 3L), rollup(10.0, 2L), runStart);
+
+        Document inc = (Document) update.getUpdateObject().get("$inc");
+        assertEquals(2.5, inc.get("totalAmount"));
+        assertEquals(1L, inc.get("count"));
+        assertEquals(runStart, ((Document) update.getUpdateObject().get("$set")).get("reconciledAt"));
+    }
+
+    @Test
+    void correctionOnlyMatchesTheValuesItWasComputedFrom() {
+        Document query = ExpenseRollupService.unchangedSince(rollup(10.0, 2L)).getQueryObject();
+
+        assertEquals(ID, query.get("id"));
+        assertEquals(10.0, query.get("totalAmount"));
+        assertEquals(2L, query.get("count"));
+    }
+
+    @Test
+    void correctionWithoutLiveWritesReachesTheExpectedTotals() {
+        ExpenseRollup expected = rollup(12.5, 3L);
+        ExpenseRollup read = rollup(10.0, 2L);
+        Document bucket = bucket(10.0, 2L);
+
+        apply(bucket, ExpenseRollupService.unchangedSince(read), ExpenseRollupService.correction(expected, read, new Date()));
+
+        assertEquals(12.5, bucket.getDouble("totalAmount"));
+        assertEquals(3L, bucket.getLong("count"));
+    }
+
+    @Test
+    void liveIncrementBetweenReadAndCorrectionIsKept() {
+        ExpenseRollup expected = rollup(12.5, 3L);
+        ExpenseRollup read = rollup(10.0, 2L);
+        Document bucket = bucket(10.0, 2L);
+
+        // A new expense lands after reconcile read the bucket
+        apply(bucket, new Query(), new Update().inc("totalAmount", 4.0).inc("count", 1L));
+        apply(bucket, ExpenseRollupService.unchangedSince(read), ExpenseRollupService.correction(expected, read, new Date()));
+
+        // A $set of the expected totals would have dropped the live write, the guarded $inc leaves it to the next run
+        assertEquals(14.0, bucket.getDouble("totalAmount"));
+        assertEquals(3L, bucket.getLong("count"));
+    }
+
+    @Test
+    void bucketsWrittenDuringTheRunAreSkipped() {
+        Date runStart = new Date();
+        Date quietSince = ExpenseRollupService.quietSince(runStart);
+
+        ExpenseRollup busy = rollup(10.0, 2L);
+        busy.setUpdatedAt(new Date(runStart.getTime() + 1000));
+        ExpenseRollup justBefore = rollup(10.0, 2L);
+        justBefore.setUpdatedAt(new Date(quietSince.getTime() + 1));
+        ExpenseRollup quiet = rollup(10.0, 2L);
+        quiet.setUpdatedAt(new Date(quietSince.getTime() - 1));
+
+        assertTrue(ExpenseRollupService.recentlyUpdated(busy, quietSince));
+        assertTrue(ExpenseRollupService.recentlyUpdated(justBefore, quietSince));
+        assertFalse(ExpenseRollupService.recentlyUpdated(quiet, quietSince));
+        // Buckets from before updatedAt existed are reconciled as usual
+        assertFalse(ExpenseRollupService.recentlyUpdated(rollup(10.0, 2L), quietSince));
+    }
+
+    @Test
+    void driftIgnoresFloatingPointNoise() {
+        assertFalse(ExpenseRollupService.drifted(rollup(0.1 + 0.2, 2L), rollup(0.3, 2L)));
+        assertTrue(ExpenseRollupService.drifted(rollup(10.0, 2L), rollup(10.5, 2L)));
+        assertTrue(ExpenseRollupService.drifted(rollup(10.0, 2L), rollup(10.0, 1L)));
+    }
+
+    private ExpenseRollup rollup(double totalAmount, long count) {
+        ExpenseRollup rollup = new ExpenseRollup();
+        rollup.setId(ID);
+        rollup.setUserId("u1");
+        rollup.setGranularity("day");
+        rollup.setKey("2024-05-01");
+        rollup.setTotalAmount(totalAmount);
+        rollup.setCount(count);
+        return rollup;
+    }
+
+    private Document bucket(double totalAmount, long count) {
+        return new Document("id", ID).append("totalAmount", totalAmount).append("count", count);
+    }
+
+    // Just enough of MongoDB's updateOne for equality filters with $inc and $set
+    private void apply(Document bucket, Query query, Update update) {
+        for (String field : query.getQueryObject().keySet()) {
+            if (!query.getQueryObject().get(field).equals(bucket.get(field))) {
+                return;
+            }
+        }
+        Document inc = (Document) update.getUpdateObject().get("$inc");
+        if (inc != null) {
+            bucket.put("totalAmount", bucket.getDouble("totalAmount") + ((Number) inc.getOrDefault("totalAmount", 0.0)).doubleValue());
+            bucket.put("count", bucket.getLong("count") + ((Number) inc.getOrDefault("count", 0L)).longValue());
+        }
+        Document set = (Document) update.getUpdateObject().get("$set");
+        if (set != null) {
+            bucket.putAll(set);
+        }
+    }
+}
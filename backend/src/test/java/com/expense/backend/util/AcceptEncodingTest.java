@@ -0,0 +1,37 @@
+package com.expense.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AcceptEncodingTest {
+
+    @Test
+    void gzipIsAllowedWhenListedWithPositiveQuality() {
+        assertTrue(AcceptEncoding.allowsGzip("gzip"));
+        assertTrue(AcceptEncoding.allowsGzip("deflate, GZIP;q=0.5, br"));
+        assertTrue(AcceptEncoding.allowsGzip("br;q=1.0, gzip ; q=0.001"));
+    }
+
+    @Test
+    void zeroQualityRefusesGzip() {
+        assertFalse(AcceptEncoding.allowsGzip("gzip;q=0"));
+        assertFalse(AcceptEncoding.allowsGzip("gzip;q=0.000, *"));
+        assertFalse(AcceptEncoding.allowsGzip("gzip;q=abc"));
+    }
+
+    @Test
+    void otherCodingsContainingGzipDoNotCount() {
+        assertFalse(AcceptEncoding.allowsGzip("x-gzip-custom, notgzip"));
+        assertFalse(AcceptEncoding.allowsGzip(null));
+        assertFalse(AcceptEncoding.allowsGzip("identity"));
+    }
+
+    @Test
+    void wildcardAppliesWhenGzipIsNotListed() {
+        assertTrue(AcceptEncoding.allowsGzip("*"));
+        assertTrue(AcceptEncoding.allowsGzip("br, *;q=0.1"));
+        assertFalse(AcceptEncoding.allowsGzip("br, *;q=0"));
+    }
+}
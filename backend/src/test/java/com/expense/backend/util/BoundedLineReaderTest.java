@@ -0,0 +1,52 @@
+package com.expense.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedLineReaderTest {
+
+    @Test
+    void readsLinesWithEitherTerminator() throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(new StringReader("{\"a\":1}\r\n\n{\"b\":2}"), 1024);
+
+        assertEquals("{\"a\":1}", reader.readLine());
+        assertEquals("", reader.readLine());
+        assertEquals("{\"b\":2}", reader.readLine());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    void oversizedLineIsSkippedAndReadingResumes() throws IOException {
+        // Longer than the internal buffer, so the skip spans several reads
+        String longLine = "x".repeat(20000);
+        BoundedLineReader reader = new BoundedLineReader(new StringReader("first\n" + longLine + "\nlast\n"), 64);
+
+        assertEquals("first", reader.readLine());
+        assertFalse(reader.isOversized());
+
+        assertEquals("", reader.readLine());
+        assertTrue(reader.isOversized());
+
+        assertEquals("last", reader.readLine());
+        assertFalse(reader.isOversized());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    void carriageReturnDoesNotCountTowardsTheLimit() throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(new StringReader("abcd\r\nabcde\r\n"), 4);
+
+        assertEquals("abcd", reader.readLine());
+        assertFalse(reader.isOversized());
+        assertEquals("", reader.readLine());
+        assertTrue(reader.isOversized());
+        assertNull(reader.readLine());
+    }
+}
@@ -0,0 +1,83 @@
+package com.expense.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void readsPlainAndQuotedFields() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(
+            "expname,expprice\r\n\"Lunch, team\",12.5\n\"He said \"\"hi\"\"\",3\n"), 1024);
+
+        assertEquals(List.of("expname", "expprice"), reader.readRecord());
+        assertEquals(List.of("Lunch, team", "12.5"), reader.readRecord());
+        assertEquals(List.of("He said \"hi\"", "3"), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void quotedFieldsMaySpanLines() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("\"line one\r\nline two\",x\nnext,y"), 1024);
+
+        assertEquals(List.of("line one\nline two", "x"), reader.readRecord());
+        assertEquals(List.of("next", "y"), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void blankLinesComeBackAsOneEmptyField() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b\n\nc,d\n"), 1024);
+
+        assertEquals(List.of("a", "b"), reader.readRecord());
+        assertEquals(List.of(""), reader.readRecord());
+        assertEquals(List.of("c", "d"), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void oversizedRecordIsSkippedAndReadingResumes() throws IOException {
+        String longField = "x".repeat(100);
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(
+            "a,b\n" + longField + ",1\n\"" + longField + "\n" + longField + "\",2\nc,d\n"), 50);
+
+        assertEquals(List.of("a", "b"), reader.readRecord());
+        assertFalse(reader.isOversized());
+
+        assertTrue(reader.readRecord().isEmpty());
+        assertTrue(reader.isOversized());
+
+        // The quoted record spans two lines and is skipped as one
+        assertTrue(reader.readRecord().isEmpty());
+        assertTrue(reader.isOversized());
+
+        assertEquals(List.of("c", "d"), reader.readRecord());
+        assertFalse(reader.isOversized());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void separatorsCountTowardsTheLimit() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(",".repeat(1000) + "\nok\n"), 64);
+
+        assertTrue(reader.readRecord().isEmpty());
+        assertTrue(reader.isOversized());
+        assertEquals(List.of("ok"), reader.readRecord());
+    }
+
+    @Test
+    void recordAtTheLimitIsKept() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("abc,def\n"), 7);
+
+        assertEquals(List.of("abc", "def"), reader.readRecord());
+        assertFalse(reader.isOversized());
+    }
+}
@@ -0,0 +1,91 @@
+package com.expense.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PdfReportWriterTest {
+
+    private static final String[] COLUMNS = { "Date", "Name", "Total" };
+    private static final float[] COLUMN_WIDTHS = { 80, 200, 80 };
+    private static final boolean[] RIGHT_ALIGNED = { false, false, true };
+
+    @Test
+    void xrefOffsetsPointAtTheirObjects() throws IOException {
+        String pdf = writeReport(500);
+
+        Matcher startxref = Pattern.compile("startxref\n(\\d+)\n%%EOF\n$").matcher(pdf);
+        assertTrue(startxref.find());
+        int xrefOffset = Integer.parseInt(startxref.group(1));
+        assertTrue(pdf.startsWith("xref\n", xrefOffset));
+
+        Matcher header = Pattern.compile("xref\n0 (\\d+)\n").matcher(pdf);
+        assertTrue(header.find(xrefOffset));
+        int size = Integer.parseInt(header.group(1));
+
+        Matcher entry = Pattern.compile("(\\d{10}) 00000 n \n").matcher(pdf);
+        entry.region(header.end(), pdf.length());
+        for (int object = 1; object < size; object++) {
+            assertTrue(entry.find(), "missing xref entry for object " + object);
+            int offset = Integer.parseInt(entry.group(1));
+            assertTrue(pdf.startsWith(object + " 0 obj\n", offset), "object " + object + " is not at " + offset);
+        }
+        assertTrue(pdf.contains("trailer\n<< /Size " + size + " /Root 1 0 R >>"));
+    }
+
+    @Test
+    void pageCountMatchesThePageTree() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfReportWriter writer = new PdfReportWriter(out, List.of("Expense Report"), COLUMNS, COLUMN_WIDTHS, RIGHT_ALIGNED);
+        for (int i = 0; i < 500; i++) {
+            writer.addRow(new String[] { "2024-01-01", "Row " + i, "1.00" });
+        }
+        writer.finish(List.of("Expenses: 500"));
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+
+        assertTrue(writer.getPageCount() > 1);
+        assertTrue(pdf.contains("/Count " + writer.getPageCount() + " >>"));
+        assertEquals(writer.getPageCount(), count(pdf, "/Type /Page /Parent"));
+        assertTrue(pdf.contains("(Page " + writer.getPageCount() + ") Tj"));
+    }
+
+    @Test
+    void stringDelimitersAndBackslashesAreEscaped() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfReportWriter writer = new PdfReportWriter(out, List.of("Report (draft)"), COLUMNS, COLUMN_WIDTHS, RIGHT_ALIGNED);
+        writer.addRow(new String[] { "2024-01-01", "Taxi (airport) C:\\receipts", "12.50" });
+        writer.finish(List.of("Total \\ (all)"));
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+
+        assertTrue(pdf.contains("(Report \\(draft\\)) Tj"));
+        assertTrue(pdf.contains("(Taxi \\(airport\\) C:\\\\receipts) Tj"));
+        assertTrue(pdf.contains("(Total \\\\ \\(all\\)) Tj"));
+    }
+
+    private String writeReport(int rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfReportWriter writer = new PdfReportWriter(out, List.of("Expense Report", "Period: start to today"),
+            COLUMNS, COLUMN_WIDTHS, RIGHT_ALIGNED);
+        for (int i = 0; i < rows; i++) {
+            writer.addRow(new String[] { "2024-01-01", "Caf\u00e9 (" + i + ")", "1.00" });
+        }
+        writer.finish(List.of("Expenses: " + rows));
+        return out.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    private int count(String text, String needle) {
+        int count = 0;
+        for (int i = text.indexOf(needle); i >= 0; i = text.indexOf(needle, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,78 @@
+package com.expense.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchTermsTest {
+
+    @Test
+    void prefixesOfEveryWordAcrossFieldsWithoutDuplicates() {
+        List<String> prefixes = SearchTerms.prefixes("Taxi", "taxi ride", null);
+
+        assertEquals(List.of("ta", "tax", "taxi", "ri", "rid", "ride"), prefixes);
+    }
+
+    @Test
+    void prefixesSplitOnPunctuationAndSkipSingleCharacters() {
+        List<String> prefixes = SearchTerms.prefixes("Café-au lait, 2x");
+
+        assertEquals(List.of("ca", "caf", "café", "au", "la", "lai", "lait", "2x"), prefixes);
+    }
+
+    @Test
+    void prefixesStopAtMaxLength() {
+        String word = "abcdefghijklmnopqrstuvwxyz";
+        List<String> prefixes = SearchTerms.prefixes(word);
+
+        assertEquals(SearchTerms.MAX_PREFIX_LENGTH - SearchTerms.MIN_PREFIX_LENGTH + 1, prefixes.size());
+        assertEquals(word.substring(0, SearchTerms.MAX_PREFIX_LENGTH), prefixes.get(prefixes.size() - 1));
+    }
+
+    @Test
+    void prefixesIgnoreWordsPastTheLimit() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            text.append("w").append(i).append(' ');
+        }
+        text.append("overflow");
+
+        List<String> prefixes = SearchTerms.prefixes(text.toString());
+
+        assertTrue(prefixes.contains("w63"));
+        assertFalse(prefixes.contains("ov"));
+    }
+
+    @Test
+    void queryTermsAreLowerCasedDedupedAndCut() {
+        List<String> terms = SearchTerms.queryTerms("  Coffee a COFFEE supercalifragilistic ");
+
+        assertEquals(List.of("coffee", "supercalifragili"), terms);
+    }
+
+    @Test
+    void queryTermsMatchStoredPrefixes() {
+        List<String> prefixes = SearchTerms.prefixes("Supercalifragilistic groceries");
+
+        assertTrue(prefixes.containsAll(SearchTerms.queryTerms("SUPERCALIFRAGILISTICEXPIALIDOCIOUS groc")));
+    }
+
+    @Test
+    void textTermsKeepWordsLongerThanThePrefixLimit() {
+        List<String> terms = SearchTerms.textTerms("Reimbursements Internationalization a");
+
+        assertEquals(List.of("reimbursements", "internationalization"), terms);
+        assertEquals(List.of("reimbursements", "internationaliza"), SearchTerms.queryTerms("Reimbursements Internationalization a"));
+    }
+
+    @Test
+    void queryTermsAreCappedAndEmptyForBlankInput() {
+        assertEquals(8, SearchTerms.queryTerms("aa bb cc dd ee ff gg hh ii jj").size());
+        assertTrue(SearchTerms.queryTerms(null).isEmpty());
+        assertTrue(SearchTerms.queryTerms("a - !").isEmpty());
+    }
+}
@@ -0,0 +1,547 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// End-to-end load generator for the expense backend, JDK only so it runs without a build:
+//
+//   java backend/tools/loadtest/LoadTest.java --base-url http://localhost:8080 --users 50 --duration 60
+//
+// Seeds users through signup and expenses through createexpenses, then replays a weighted mix of
+// signin, create, read, update, delete and signout calls and reports throughput and latency per endpoint.
+// Point the backend at a throwaway database, every run creates new users.
+public class LoadTest {
+
+    private static final String API = "/expense/backend/api/v1";
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern VERSION = Pattern.compile("\"version\"\\s*:\\s*(\\d+)");
+
+    private static final String[] NAMES = { "Coffee", "Taxi", "Hotel", "Lunch", "Printer paper", "Flight", "Team dinner", "Parking" };
+    private static final String[] PURPOSES = { "Client visit", "Office supplies", "Conference", "Travel", "Team event" };
+
+    private static final String DEFAULT_MIX =
+        "readexpensepage=40,readexpense=5,createexpense=20,updateexpense=20,deleteexpense=10,signin=3,signout=2";
+
+    private final Options options;
+    private final HttpClient client;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        if (options == null) {
+            System.out.println(Options.USAGE);
+            return;
+        }
+        new LoadTest(options).run();
+    }
+
+    private LoadTest(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newFixedThreadPool(Math.max(4, options.concurrency / 4), runnable -> {
+                Thread thread = new Thread(runnable, "loadtest-http");
+                thread.setDaemon(true);
+                return thread;
+            }))
+            .build();
+    }
+
+    private void run() throws Exception {
+        System.out.printf("Seeding %d users with %d expenses each against %s%n",
+            options.users, options.expensesPerUser, options.baseUrl);
+        long seedStart = System.nanoTime();
+        List<Session> sessions = seed();
+        System.out.printf("Seeded in %.1fs%n", (System.nanoTime() - seedStart) / 1e9);
+        if (sessions.isEmpty()) {
+            System.err.println("No user could be seeded, is the backend running?");
+            System.exit(1);
+        }
+
+        Mix mix = Mix.parse(options.mix);
+        System.out.printf("Running %s for %ds (+%ds warmup) with %d workers%s%n", options.mix, options.durationSeconds,
+            options.warmupSeconds, options.concurrency,
+            options.rate > 0 ? String.format(Locale.ROOT, " at %.0f req/s", options.rate) : "");
+
+        long warmupEnd = System.nanoTime() + options.warmupSeconds * 1_000_000_000L;
+        long end = warmupEnd + options.durationSeconds * 1_000_000_000L;
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency);
+        List<Future<Recorder>> results = new ArrayList<>();
+        for (int i = 0; i < options.concurrency; i++) {
+            results.add(workers.submit(() -> work(sessions, mix, warmupEnd, end)));
+        }
+
+        Recorder total = new Recorder();
+        for (Future<Recorder> result : results) {
+            total.merge(result.get());
+        }
+        workers.shutdown();
+
+        // Sign everyone out so the run leaves no live tokens behind
+        for (Session session : sessions) {
+            session.spareTokens.add(session.token);
+            for (String token : session.spareTokens) {
+                send(authorized(token, "/" + session.userId + "/signout").POST(HttpRequest.BodyPublishers.noBody()));
+            }
+        }
+
+        total.report(options.durationSeconds);
+    }
+
+    // Closed loop by default; with --rate each worker follows a fixed schedule and latency is measured
+    // from the intended start, so a stalled server shows up in the tail instead of slowing the load.
+    private Recorder work(List<Session> sessions, Mix mix, long warmupEnd, long end) {
+        Recorder recorder = new Recorder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long intervalNanos = options.rate > 0 ? (long) (options.concurrency * 1e9 / options.rate) : 0;
+        long next = System.nanoTime() + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+
+        while (true) {
+            long start;
+            if (intervalNanos > 0) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    sleepNanos(wait);
+                }
+                start = next;
+                next += intervalNanos;
+            } else {
+                start = System.nanoTime();
+            }
+            if (start >= end) {
+                return recorder;
+            }
+
+            Session session = sessions.get(random.nextInt(sessions.size()));
+            Call call = call(session, mix.pick(random), random);
+            long elapsed = System.nanoTime() - start;
+            if (start >= warmupEnd) {
+                recorder.record(call.endpoint, elapsed, call.status);
+            }
+            if (options.thinkMillis > 0) {
+                sleepNanos(options.thinkMillis * 1_000_000L);
+            }
+        }
+    }
+
+    private List<Session> seed() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(options.users, 16));
+        List<Future<Session>> futures = new ArrayList<>();
+        for (int i = 0; i < options.users; i++) {
+            int user = i;
+            futures.add(pool.submit(() -> seedUser(user)));
+        }
+        List<Session> sessions = new ArrayList<>();
+        for (Future<Session> future : futures) {
+            Session session = future.get();
+            if (session != null) {
+                sessions.add(session);
+            }
+        }
+        pool.shutdown();
+        return sessions;
+    }
+
+    private Session seedUser(int user) {
+        String email = "load-" + runId + "-" + user + "@example.com";
+        String password = "Load-" + runId;
+        String body = "{\"username\":\"load" + runId + user + "\",\"useremail\":\"" + email
+            + "\",\"userpassword\":\"" + password + "\"}";
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/signup"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body)));
+        if (response == null || response.statusCode() != 201) {
+            System.err.println("Signup failed for " + email + ": " + describe(response));
+            return null;
+        }
+
+        Session session = new Session(email, password, match(ID, response.body()), match(TOKEN, response.body()));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int offset = 0; offset < options.expensesPerUser; offset += options.seedBatch) {
+            int count = Math.min(options.seedBatch, options.expensesPerUser - offset);
+            StringBuilder batch = new StringBuilder("[");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    batch.append(',');
+                }
+                batch.append(expenseJson(random));
+            }
+            batch.append(']');
+            HttpResponse<String> created = send(authorized(session.token, "/" + session.userId + "/createexpenses")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(batch.toString())));
+            if (created == null || created.statusCode() >= 300 && created.statusCode() != 207) {
+                System.err.println("Seeding expenses failed for " + email + ": " + describe(created));
+                break;
+            }
+            Matcher ids = ID.matcher(created.body());
+            while (ids.find()) {
+                session.expenses.add(new ExpenseRef(ids.group(1), 0L));
+            }
+        }
+        return session;
+    }
+
+    // Runs one call of the mix; update and delete fall back to a create when the session has no expenses left
+    // and signout to a signin when it has no spare token, so the result names the endpoint actually called
+    private Call call(Session session, String endpoint, ThreadLocalRandom random) {
+        String user = "/" + session.userId;
+        HttpResponse<String> response;
+
+        if ("signin".equals(endpoint)) {
+            response = send(HttpRequest.newBuilder(uri("/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"useremail\":\"" + session.email
+                    + "\",\"userpassword\":\"" + session.password + "\"}")));
+            String token = response != null && response.statusCode() == 200 ? match(TOKEN, response.body()) : null;
+            // Tokens carry no unique id, one issued in the same second as the shared token is identical to it
+            if (token != null && !token.equals(session.token)) {
+                session.spareTokens.add(token);
+            }
+        } else if ("signout".equals(endpoint)) {
+            // Sign out a token from an earlier signin, the shared session token must stay valid for other workers
+            String token = session.spareTokens.pollFirst();
+            if (token == null) {
+                return call(session, "signin", random);
+            }
+            response = send(authorized(token, user + "/signout").POST(HttpRequest.BodyPublishers.noBody()));
+        } else if ("createexpense".equals(endpoint)) {
+            response = send(authorized(session.token, user + "/createexpense")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(expenseJson(random))));
+            if (response != null && response.statusCode() == 201) {
+                session.expenses.add(new ExpenseRef(match(ID, response.body()), 0L));
+            }
+        } else if ("readexpense".equals(endpoint)) {
+            response = send(authorized(session.token, user + "/readexpense").GET());
+        } else if ("readexpensepage".equals(endpoint)) {
+            response = send(authorized(session.token, user + "/readexpense/page?limit=" + options.pageSize).GET());
+        } else if ("updateexpense".equals(endpoint)) {
+            ExpenseRef expense = session.expenses.pollFirst();
+            if (expense == null) {
+                return call(session, "createexpense", random);
+            }
+            String body = String.format(Locale.ROOT, "{\"expprice\":%.2f,\"version\":%d}",
+                1 + random.nextDouble(500), expense.version);
+            response = send(authorized(session.token, user + "/" + expense.id + "/updateexpense")
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body)));
+            if (response != null && response.statusCode() == 200) {
+                String version = match(VERSION, response.body());
+                expense = new ExpenseRef(expense.id, version != null ? Long.parseLong(version) : expense.version + 1);
+            }
+            session.expenses.addLast(expense);
+        } else if ("deleteexpense".equals(endpoint)) {
+            ExpenseRef expense = session.expenses.pollLast();
+            if (expense == null) {
+                return call(session, "createexpense", random);
+            }
+            response = send(authorized(session.token, user + "/" + expense.id + "/deleteexpense").DELETE());
+        } else {
+            throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+        }
+
+        return new Call(endpoint, response != null ? response.statusCode() : 0);
+    }
+
+    private String expenseJson(ThreadLocalRandom random) {
+        Instant date = Instant.now().minus(Duration.ofDays(random.nextInt(730)));
+        return String.format(Locale.ROOT,
+            "{\"expname\":\"%s\",\"exppurpose\":\"%s\",\"expdescription\":\"Load test expense %d\","
+                + "\"expquantity\":%d,\"expprice\":%.2f,\"expexpenseDate\":\"%s\"}",
+            NAMES[random.nextInt(NAMES.length)], PURPOSES[random.nextInt(PURPOSES.length)], random.nextInt(1_000_000),
+            1 + random.nextInt(5), 1 + random.nextDouble(500), date);
+    }
+
+    private HttpRequest.Builder authorized(String token, String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token);
+    }
+
+    private URI uri(String path) {
+        return URI.create(options.baseUrl + API + path);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) {
+        try {
+            return client.send(request.timeout(Duration.ofSeconds(options.timeoutSeconds)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String describe(HttpResponse<String> response) {
+        if (response == null) {
+            return "no response";
+        }
+        String body = response.body();
+        return response.statusCode() + " " + (body.length() > 200 ? body.substring(0, 200) : body);
+    }
+
+    private static String match(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static void sleepNanos(long nanos) {
+        try {
+            Thread.sleep(nanos / 1_000_000L, (int) (nanos % 1_000_000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Session {
+        private final String email;
+        private final String password;
+        private final String userId;
+        private final String token;
+        private final ConcurrentLinkedDeque<String> spareTokens = new ConcurrentLinkedDeque<>();
+        // Expenses this session may update or delete, a worker takes one out while it uses it
+        private final ConcurrentLinkedDeque<ExpenseRef> expenses = new ConcurrentLinkedDeque<>();
+
+        private Session(String email, String password, String userId, String token) {
+            this.email = email;
+            this.password = password;
+            this.userId = userId;
+            this.token = token;
+        }
+    }
+
+    private static class Call {
+        private final String endpoint;
+        private final int status;
+
+        private Call(String endpoint, int status) {
+            this.endpoint = endpoint;
+            this.status = status;
+        }
+    }
+
+    private static class ExpenseRef {
+        private final String id;
+        private final long version;
+
+        private ExpenseRef(String id, long version) {
+            this.id = id;
+            this.version = version;
+        }
+    }
+
+    private static class Mix {
+        private final String[] endpoints;
+        private final int[] cumulativeWeights;
+
+        private Mix(String[] endpoints, int[] cumulativeWeights) {
+            this.endpoints = endpoints;
+            this.cumulativeWeights = cumulativeWeights;
+        }
+
+        private static Mix parse(String spec) {
+            List<String> endpoints = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            int total = 0;
+            for (String part : spec.split(",")) {
+                String[] pair = part.trim().split("=");
+                int weight = Integer.parseInt(pair[1].trim());
+                if (weight <= 0) {
+                    continue;
+                }
+                total += weight;
+                endpoints.add(pair[0].trim());
+                weights.add(total);
+            }
+            if (endpoints.isEmpty()) {
+                throw new IllegalArgumentException("Traffic mix has no endpoints with a positive weight");
+            }
+            return new Mix(endpoints.toArray(new String[0]), weights.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        private String pick(ThreadLocalRandom random) {
+            int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (roll < cumulativeWeights[i]) {
+                    return endpoints[i];
+                }
+            }
+            return endpoints[endpoints.length - 1];
+        }
+    }
+
+    // One per worker so recording never contends, merged once the run is over
+    private static class Recorder {
+        private final Map<String, Samples> samples = new HashMap<>();
+
+        private void record(String endpoint, long nanos, int status) {
+            samples.computeIfAbsent(endpoint, key -> new Samples()).add(nanos, status);
+        }
+
+        private void merge(Recorder other) {
+            other.samples.forEach((endpoint, theirs) ->
+                samples.computeIfAbsent(endpoint, key -> new Samples()).addAll(theirs));
+        }
+
+        private void report(int durationSeconds) {
+            System.out.printf("%n%-16s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            Samples all = new Samples();
+            for (Map.Entry<String, Samples> entry : new TreeMap<>(samples).entrySet()) {
+                print(entry.getKey(), entry.getValue(), durationSeconds);
+                all.addAll(entry.getValue());
+            }
+            print("total", all, durationSeconds);
+
+            Map<Integer, Integer> statuses = new TreeMap<>(all.statuses);
+            System.out.println("\nstatus codes: " + statuses + (statuses.containsKey(0) ? " (0 = no response)" : ""));
+        }
+
+        private void print(String endpoint, Samples samples, int durationSeconds) {
+            long[] sorted = Arrays.copyOf(samples.nanos, samples.size);
+            Arrays.sort(sorted);
+            System.out.printf(Locale.ROOT, "%-16s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint, samples.size,
+                samples.errors, samples.size / (double) durationSeconds, percentile(sorted, 0.50),
+                percentile(sorted, 0.99), percentile(sorted, 0.999), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+    }
+
+    private static class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+        private final Map<Integer, Integer> statuses = new HashMap<>();
+
+        private void add(long value, int status) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+            if (status == 0 || status >= 400) {
+                errors++;
+            }
+            statuses.merge(status, 1, Integer::sum);
+        }
+
+        private void addAll(Samples other) {
+            if (size + other.size > nanos.length) {
+                nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, size + other.size));
+            }
+            System.arraycopy(other.nanos, 0, nanos, size, other.size);
+            size += other.size;
+            errors += other.errors;
+            other.statuses.forEach((status, count) -> statuses.merge(status, count, Integer::sum));
+        }
+    }
+
+    private static class Options {
+        private static final String USAGE = String.join("\n",
+            "Usage: java LoadTest.java [options]",
+            "  --base-url URL           backend root (default http://localhost:8080)",
+            "  --users N                users to sign up and seed (default 20)",
+            "  --expenses-per-user N    expenses seeded per user (default 500)",
+            "  --seed-batch N           expenses per createexpenses call while seeding (default 500)",
+            "  --concurrency N          worker threads (default 32)",
+            "  --duration SECONDS       measured run length (default 60)",
+            "  --warmup SECONDS         unmeasured warmup before the run (default 10)",
+            "  --rate REQ_PER_SEC       fixed arrival rate instead of a closed loop (default off)",
+            "  --think-ms MILLIS        pause after every call in a worker, closed loop only (default 0)",
+            "  --page-size N            limit for readexpense/page (default 50)",
+            "  --timeout SECONDS        per request timeout (default 30)",
+            "  --mix SPEC               weights, e.g. " + DEFAULT_MIX);
+
+        private String baseUrl = "http://localhost:8080";
+        private int users = 20;
+        private int expensesPerUser = 500;
+        private int seedBatch = 500;
+        private int concurrency = 32;
+        private int durationSeconds = 60;
+        private int warmupSeconds = 10;
+        private double rate;
+        private long thinkMillis;
+        private int pageSize = 50;
+        private int timeoutSeconds = 30;
+        private String mix = DEFAULT_MIX;
+
+        private static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < args.length; i++) {
+                if ("--help".equals(args[i]) || "-h".equals(args[i])) {
+                    return null;
+                }
+                if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+                }
+                values.put(args[i].substring(2), args[++i]);
+            }
+
+            Options options = new Options();
+            values.forEach((name, value) -> {
+                if ("base-url".equals(name)) {
+                    options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                } else if ("users".equals(name)) {
+                    options.users = Integer.parseInt(value);
+                } else if ("expenses-per-user".equals(name)) {
+                    options.expensesPerUser = Integer.parseInt(value);
+                } else if ("seed-batch".equals(name)) {
+                    options.seedBatch = Math.max(1, Integer.parseInt(value));
+                } else if ("concurrency".equals(name)) {
+                    options.concurrency = Integer.parseInt(value);
+                } else if ("duration".equals(name)) {
+                    options.durationSeconds = Integer.parseInt(value);
+                } else if ("warmup".equals(name)) {
+                    options.warmupSeconds = Integer.parseInt(value);
+                } else if ("rate".equals(name)) {
+                    options.rate = Double.parseDouble(value);
+                } else if ("think-ms".equals(name)) {
+                    options.thinkMillis = Long.parseLong(value);
+                } else if ("page-size".equals(name)) {
+                    options.pageSize = Integer.parseInt(value);
+                } else if ("timeout".equals(name)) {
+                    options.timeoutSeconds = Integer.parseInt(value);
+                } else if ("mix".equals(name)) {
+                    options.mix = value;
+                } else {
+                    throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            });
+            if (options.users < 1 || options.concurrency < 1 || options.durationSeconds < 1) {
+                throw new IllegalArgumentException("--users, --concurrency and --duration must be at least 1");
+            }
+            // The schedule already spaces calls out, a pause on top would be counted as latency
+            if (options.rate > 0 && options.thinkMillis > 0) {
+                throw new IllegalArgumentException("--think-ms only applies to the closed loop, drop it when using --rate");
+            }
+            return options;
+        }
+    }
+}
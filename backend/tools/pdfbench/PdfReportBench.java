@@ -0,0 +1,134 @@
+import com.expense.backend.util.PdfReportWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Pages per second and peak heap of PdfReportWriter, JDK only. The writer has no dependencies, so it is
+// compiled on its own and put on the class path of this single-file program:
+//
+//   javac -d /tmp/pdfbench backend/src/main/java/com/expense/backend/util/PdfReportWriter.java
+//   java -Xmx256m -cp /tmp/pdfbench backend/tools/pdfbench/PdfReportBench.java --rows 1000,10000,100000
+//
+// Rows use the column layout of ExpenseReportService and go to a byte counting sink, so the numbers are the
+// writer's own cost. Peak heap is the sum of the heap pools' peaks during a measured run, it should stay
+// flat as the row count grows.
+public class PdfReportBench {
+
+    private static final String[] COLUMNS = { "Date", "Name", "Purpose", "Description", "Qty", "Price", "Total" };
+    private static final float[] COLUMN_WIDTHS = { 62, 95, 80, 125, 40, 56, 57 };
+    private static final boolean[] RIGHT_ALIGNED = { false, false, false, false, true, true, true };
+
+    private static final String[] NAMES = { "Coffee", "Taxi (airport)", "Hotel", "Lunch", "Printer paper", "Flight" };
+    private static final String[] PURPOSES = { "Client visit", "Office supplies", "Conference", "Travel" };
+
+    public static void main(String[] args) throws IOException {
+        List<Integer> rowCounts = new ArrayList<>(List.of(1000, 10000, 100000));
+        int iterations = 5;
+        int warmup = 2;
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--rows":
+                    rowCounts.clear();
+                    for (String rows : args[i + 1].split(",")) {
+                        rowCounts.add(Integer.parseInt(rows.trim()));
+                    }
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]
+                        + ", expected --rows N[,N...] --iterations N --warmup N");
+            }
+        }
+
+        System.out.printf("%10s %8s %12s %12s %12s %14s%n", "rows", "pages", "bytes", "ms", "pages/s", "peak heap MB");
+        for (int rows : rowCounts) {
+            for (int i = 0; i < warmup; i++) {
+                write(rows, new CountingOutputStream());
+            }
+            long bestNanos = Long.MAX_VALUE;
+            long peakHeap = 0;
+            int pages = 0;
+            long bytes = 0;
+            for (int i = 0; i < iterations; i++) {
+                System.gc();
+                resetPeakHeap();
+                CountingOutputStream sink = new CountingOutputStream();
+                long start = System.nanoTime();
+                pages = write(rows, sink);
+                bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                peakHeap = Math.max(peakHeap, peakHeap());
+                bytes = sink.count;
+            }
+            System.out.printf(Locale.ROOT, "%10d %8d %12d %12.1f %12.0f %14.1f%n", rows, pages, bytes, bestNanos / 1e6,
+                pages / (bestNanos / 1e9), peakHeap / (1024.0 * 1024.0));
+        }
+    }
+
+    private static int write(int rows, OutputStream out) throws IOException {
+        PdfReportWriter writer = new PdfReportWriter(out, List.of("Expense Report", "Benchmark user",
+            "Period: start to today"), COLUMNS, COLUMN_WIDTHS, RIGHT_ALIGNED);
+        double total = 0;
+        for (int i = 0; i < rows; i++) {
+            double quantity = 1 + i % 5;
+            double price = 10 + (i * 7919 % 50000) / 100.0;
+            total += quantity * price;
+            writer.addRow(new String[] {
+                String.format(Locale.ROOT, "2024-%02d-%02d", 1 + i % 12, 1 + i % 28),
+                NAMES[i % NAMES.length],
+                PURPOSES[i % PURPOSES.length],
+                "Receipt #" + i + " paid with the company card \\ reimbursed",
+                String.format(Locale.ROOT, "%.0f", quantity),
+                String.format(Locale.ROOT, "%.2f", price),
+                String.format(Locale.ROOT, "%.2f", quantity * price)
+            });
+        }
+        writer.finish(List.of("Expenses: " + rows, "Total Amount: Rs. " + String.format(Locale.ROOT, "%.2f", total)));
+        return writer.getPageCount();
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
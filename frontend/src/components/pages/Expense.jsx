@@ -93,7 +93,11 @@ const Expense = () => {
       };
 
       if (editingExpense) {
-        await expenseService.updateExpense(userid, editingExpense.id, expenseData);
+        // Send back the version that was read, the backend answers 409 if someone changed it since
+        await expenseService.updateExpense(userid, editingExpense.id, {
+          ...expenseData,
+          version: editingExpense.version ?? 0,
+        });
       } else {
         await expenseService.createExpense(userid, expenseData);
       }
@@ -101,6 +105,11 @@ const Expense = () => {
       await expenseService.readExpenses(userid);
     } catch (error) {
       console.error('Expense operation error:', error);
+      // Edited elsewhere meanwhile, reload so the next edit starts from the current version
+      if (error.response?.status === 409) {
+        resetForm();
+        await expenseService.readExpenses(userid);
+      }
     } finally {
       setFormLoading(false);
     }